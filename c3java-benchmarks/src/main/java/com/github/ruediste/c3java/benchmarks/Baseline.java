@@ -0,0 +1,41 @@
+package com.github.ruediste.c3java.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs the hot path benchmarks with the GC profiler, reporting the allocation
+ * rate per operation, and writes the results as JSON. Used to create the
+ * committed baseline, against which later runs can be compared.
+ *
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar
+ * com.github.ruediste.c3java.benchmarks.Baseline [result file]}
+ * </p>
+ */
+public class Baseline {
+
+    public static void main(String[] args) throws RunnerException {
+        String resultFile = args.length > 0 ? args[0] : "baseline.json";
+        Options options = new OptionsBuilder()
+                .include(pattern(LinearizationBenchmark.class))
+                .include(pattern(PropertyBenchmark.class))
+                .include(pattern(MethodBenchmark.class))
+                .addProfiler(GCProfiler.class)
+                .warmupIterations(3).warmupTime(TimeValue.seconds(1))
+                .measurementIterations(3).measurementTime(TimeValue.seconds(1))
+                .forks(1)
+                .resultFormat(ResultFormatType.JSON).result(resultFile)
+                .build();
+        new Runner(options).run();
+    }
+
+    private static String pattern(Class<?> benchmark) {
+        return "^" + benchmark.getName().replace(".", "\\.") + "\\.";
+    }
+}
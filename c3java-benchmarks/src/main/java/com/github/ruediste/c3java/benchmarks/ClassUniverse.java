@@ -0,0 +1,60 @@
+package com.github.ruediste.c3java.benchmarks;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import com.github.ruediste.c3java.linearization.DefaultDirectSuperclassesInspector;
+import com.github.ruediste.c3java.linearization.JavaC3;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * A realistic set of classes to linearize: all classes of the jar containing
+ * Guava, which can be linearized with the
+ * {@link DefaultDirectSuperclassesInspector}.
+ */
+public class ClassUniverse {
+
+    private static List<Class<?>> classes;
+
+    public static synchronized List<Class<?>> get() {
+        if (classes == null) {
+            classes = load();
+        }
+        return classes;
+    }
+
+    private static List<Class<?>> load() {
+        List<Class<?>> result = new ArrayList<>();
+        ClassLoader loader = ClassUniverse.class.getClassLoader();
+        try {
+            Path jar = Paths.get(ImmutableList.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            try (JarFile file = new JarFile(jar.toFile())) {
+                Enumeration<JarEntry> entries = file.entries();
+                while (entries.hasMoreElements()) {
+                    String name = entries.nextElement().getName();
+                    if (!name.startsWith("com/google/common/") || !name.endsWith(".class"))
+                        continue;
+                    try {
+                        Class<?> cls = Class.forName(
+                                name.substring(0, name.length() - ".class".length()).replace('/', '.'), false,
+                                loader);
+                        JavaC3.allSuperclasses(cls);
+                        result.add(cls);
+                    } catch (Throwable t) {
+                        // not loadable or not linearizable, skip
+                    }
+                }
+            }
+        } catch (IOException | URISyntaxException e) {
+            throw new RuntimeException("Error while scanning classes", e);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.ruediste.c3java.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.ruediste.c3java.dispatch.DispatchSite;
+import com.github.ruediste.c3java.dispatch.Dispatcher;
+
+/**
+ * Compares single argument dispatch through a {@link DispatchSite} and the
+ * dispatch table of a {@link Dispatcher} with a hand written instanceof chain.
+ * The receivers are either all of the same type (monomorphic) or of four
+ * different types (polymorphic).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DispatchBenchmark {
+
+    @Param({ "monomorphic", "polymorphic" })
+    public String shape;
+
+    Object[] receivers;
+    int index;
+
+    Dispatcher<ToIntFunction<Object>> dispatcher;
+    DispatchSite<ToIntFunction<Object>> site;
+
+    @Setup
+    public void setup() {
+        if ("monomorphic".equals(shape)) {
+            receivers = new Object[] { new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>() };
+        } else {
+            receivers = new Object[] { new ArrayList<>(), new HashSet<>(), new HashMap<>(), "foo" };
+        }
+        dispatcher = Dispatcher.<ToIntFunction<Object>> builder(1).register(x -> 1, List.class)
+                .register(x -> 2, Set.class).register(x -> 3, Collection.class).register(x -> 4, Map.class)
+                .register(x -> 5, TreeMap.class).register(x -> 6, Object.class).build();
+        site = dispatcher.createSite();
+    }
+
+    private Object next() {
+        index = (index + 1) & 3;
+        return receivers[index];
+    }
+
+    @Benchmark
+    public int instanceOfChain() {
+        Object receiver = next();
+        if (receiver instanceof List)
+            return 1;
+        if (receiver instanceof Set)
+            return 2;
+        if (receiver instanceof Collection)
+            return 3;
+        if (receiver instanceof TreeMap)
+            return 5;
+        if (receiver instanceof Map)
+            return 4;
+        return 6;
+    }
+
+    @Benchmark
+    public int dispatchSite() {
+        Object receiver = next();
+        return site.lookup(receiver.getClass()).applyAsInt(receiver);
+    }
+
+    @Benchmark
+    public int dispatchTable() {
+        Object receiver = next();
+        return dispatcher.lookup(receiver.getClass()).applyAsInt(receiver);
+    }
+}
@@ -0,0 +1,134 @@
+package com.github.ruediste.c3java.benchmarks;
+
+/**
+ * Classes used by the hot path benchmarks: a small bean graph and a deep class
+ * hierarchy.
+ */
+public class HotPathModel {
+
+    private HotPathModel() {
+    }
+
+    public static class Address {
+        private String city;
+
+        public String getCity() {
+            return city;
+        }
+
+        public void setCity(String city) {
+            this.city = city;
+        }
+    }
+
+    public static class Person {
+        private String name;
+        private int age;
+        private Address address;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+
+        public Address getAddress() {
+            return address;
+        }
+
+        public void setAddress(Address address) {
+            this.address = address;
+        }
+    }
+
+    public interface I1 {
+        default int getI1() {
+            return 1;
+        }
+    }
+
+    public interface I2 extends I1 {
+    }
+
+    public interface I3 extends I1 {
+        default int getI3() {
+            return 3;
+        }
+    }
+
+    public interface I4 extends I2, I3 {
+    }
+
+    public static class D1 implements I1 {
+        public int getD1() {
+            return 1;
+        }
+    }
+
+    public static class D2 extends D1 implements I2 {
+        public int getD2() {
+            return 2;
+        }
+    }
+
+    public static class D3 extends D2 implements I3 {
+        public int getD3() {
+            return 3;
+        }
+    }
+
+    public static class D4 extends D3 implements I4 {
+        public int getD4() {
+            return 4;
+        }
+    }
+
+    public static class D5 extends D4 implements Comparable<D5> {
+        @Override
+        public int compareTo(D5 o) {
+            return 0;
+        }
+    }
+
+    public static class D6 extends D5 implements Cloneable {
+    }
+
+    public static class D7 extends D6 implements java.io.Serializable {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public int getD1() {
+            return 7;
+        }
+    }
+
+    /**
+     * The deepest class of the hierarchy, with eleven classes in its
+     * linearization
+     */
+    public static class Deep extends D7 implements I4 {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public int getD1() {
+            return 8;
+        }
+    }
+
+    /**
+     * Return the class of the given hierarchy depth, "shallow" or "deep"
+     */
+    public static Class<?> hierarchy(String depth) {
+        return "deep".equals(depth) ? Deep.class : Address.class;
+    }
+}
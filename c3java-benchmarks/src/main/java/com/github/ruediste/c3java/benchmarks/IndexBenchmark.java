@@ -0,0 +1,73 @@
+package com.github.ruediste.c3java.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.ruediste.c3java.index.ReflectionIndex;
+import com.github.ruediste.c3java.index.ReflectionIndexGenerator;
+import com.github.ruediste.c3java.linearization.JavaC3;
+
+/**
+ * Measures linearizing the {@link ClassUniverse} with an empty cache, once
+ * computing all linearizations and once reading them from a
+ * {@link ReflectionIndex} as generated at build time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IndexBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean indexed;
+
+    List<Class<?>> classes;
+    ClassLoader loader;
+    ReflectionIndex index;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        classes = ClassUniverse.get();
+        loader = ClassUniverse.class.getClassLoader();
+        ReflectionIndexGenerator generator = new ReflectionIndexGenerator();
+        for (Class<?> cls : classes) {
+            generator.add(cls);
+        }
+        index = generator.build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() {
+        ReflectionIndex.reset();
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation() {
+        JavaC3.clearCache();
+        ReflectionIndex.register(loader, indexed ? index : ReflectionIndex.EMPTY);
+    }
+
+    @Benchmark
+    public void linearizeCold(Blackhole blackhole) {
+        for (Class<?> cls : classes) {
+            blackhole.consume(JavaC3.linearize(cls));
+        }
+    }
+}
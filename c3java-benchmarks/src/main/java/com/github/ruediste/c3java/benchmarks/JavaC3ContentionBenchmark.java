@@ -0,0 +1,96 @@
+package com.github.ruediste.c3java.benchmarks;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.github.ruediste.c3java.linearization.JavaC3;
+
+/**
+ * Measures the throughput of cached {@link JavaC3#allSuperclasses(Class)}
+ * lookups from many threads. As reference, the same lookups are performed
+ * against a {@link Collections#synchronizedMap(Map)}, which was used by
+ * earlier versions.
+ * 
+ * <p>
+ * Run {@link #main(String[])} to measure the scaling from 1 to 64 threads.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JavaC3ContentionBenchmark {
+
+    static final Class<?>[] TYPES = { ArrayList.class, LinkedList.class, CopyOnWriteArrayList.class, HashSet.class,
+            TreeSet.class, HashMap.class, LinkedHashMap.class, TreeMap.class, ConcurrentHashMap.class,
+            ConcurrentSkipListMap.class, AbstractMap.class, String.class, Integer.class, StringBuilder.class,
+            Thread.class, Exception.class };
+
+    @State(Scope.Benchmark)
+    public static class Caches {
+        Map<Class<?>, Iterable<Class<?>>> synchronizedMap;
+
+        @Setup
+        public void setup() {
+            synchronizedMap = Collections.synchronizedMap(new HashMap<Class<?>, Iterable<Class<?>>>());
+            for (Class<?> type : TYPES) {
+                synchronizedMap.put(type, JavaC3.allSuperclasses(type));
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int index;
+
+        Class<?> next() {
+            index = (index + 1) & (TYPES.length - 1);
+            return TYPES[index];
+        }
+    }
+
+    @Benchmark
+    public Iterable<Class<?>> javaC3(Cursor cursor) {
+        return JavaC3.allSuperclasses(cursor.next());
+    }
+
+    @Benchmark
+    public Iterable<Class<?>> synchronizedMap(Caches caches, Cursor cursor) {
+        return caches.synchronizedMap.get(cursor.next());
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (int threads = 1; threads <= 64; threads *= 2) {
+            Options options = new OptionsBuilder().include(JavaC3ContentionBenchmark.class.getName())
+                    .threads(threads).build();
+            new Runner(options).run();
+        }
+    }
+}
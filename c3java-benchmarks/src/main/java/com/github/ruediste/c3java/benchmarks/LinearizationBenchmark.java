@@ -0,0 +1,61 @@
+package com.github.ruediste.c3java.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.ruediste.c3java.linearization.JavaC3;
+import com.github.ruediste.c3java.linearization.Linearization;
+
+/**
+ * Measures {@link JavaC3#linearize(Class)} for a shallow and a deep
+ * hierarchy, with a warm cache and with a cache cleared before each
+ * invocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LinearizationBenchmark {
+
+    @Param({ "shallow", "deep" })
+    public String depth;
+
+    Class<?> type;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        type = HotPathModel.hierarchy(depth);
+    }
+
+    @State(Scope.Thread)
+    public static class ColdCache {
+        @Setup(Level.Invocation)
+        public void clear() {
+            JavaC3.clearCache();
+        }
+    }
+
+    @Benchmark
+    public Linearization warm() {
+        return JavaC3.linearize(type);
+    }
+
+    @Benchmark
+    public Linearization cold(ColdCache coldCache) {
+        return JavaC3.linearize(type);
+    }
+}
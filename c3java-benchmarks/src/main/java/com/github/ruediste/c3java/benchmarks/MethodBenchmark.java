@@ -0,0 +1,59 @@
+package com.github.ruediste.c3java.benchmarks;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.ruediste.c3java.benchmarks.HotPathModel.Deep;
+import com.github.ruediste.c3java.benchmarks.HotPathModel.Person;
+import com.github.ruediste.c3java.invocationRecording.MethodInvocationRecorder;
+import com.github.ruediste.c3java.method.MethodUtil;
+
+/**
+ * Measures iterating the declarations of an overridden method with
+ * {@link MethodUtil#getDeclarations(Method)} and creating a recording proxy
+ * with {@link MethodInvocationRecorder#getProxy(Class)}.
+ *
+ * <p>
+ * cglib needs access to {@code java.lang} to define the proxy classes, which is
+ * granted by the fork arguments. They require Java 9 or later.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.lang=ALL-UNNAMED")
+@State(Scope.Thread)
+public class MethodBenchmark {
+
+    Method overridden;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        overridden = Deep.class.getMethod("getD1");
+    }
+
+    @Benchmark
+    public void getDeclarations(Blackhole blackhole) {
+        for (Method method : MethodUtil.getDeclarations(overridden)) {
+            blackhole.consume(method);
+        }
+    }
+
+    @Benchmark
+    public Person getProxy() {
+        return new MethodInvocationRecorder().getProxy(Person.class);
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.ruediste.c3java.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.ruediste.c3java.benchmarks.HotPathModel.Person;
+import com.github.ruediste.c3java.properties.PropertyAccessStrategy;
+import com.github.ruediste.c3java.properties.PropertyInfo;
+import com.github.ruediste.c3java.properties.PropertyUtil;
+import com.github.ruediste.c3java.properties.PropertyValueAccessor;
+
+/**
+ * Compares reading and writing a property through {@link PropertyInfo} with
+ * direct calls and with calls through {@link Method#invoke(Object, Object...)}.
+ * The accessor benchmarks use the default, generated accessors, the method
+ * handle benchmarks use accessors of the
+ * {@link PropertyAccessStrategy#METHOD_HANDLE} strategy and the static handle
+ * benchmarks use the handles of the property stored in static final fields.
+ * The int benchmarks compare reading an int property with and without boxing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PropertyAccessBenchmark {
+
+    static final MethodHandle NAME_READ_HANDLE = PropertyUtil.getPropertyInfo(Person.class, "name").getReadHandle();
+    static final MethodHandle AGE_WRITE_HANDLE = PropertyUtil.getPropertyInfo(Person.class, "age").getWriteHandle();
+
+    Person person;
+    PropertyInfo name;
+    PropertyInfo age;
+    Method getName;
+    Method setAge;
+    PropertyValueAccessor nameHandleAccessor;
+    PropertyValueAccessor ageHandleAccessor;
+    int counter;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        person = new Person();
+        person.setName("John");
+        name = PropertyUtil.getPropertyInfo(Person.class, "name");
+        age = PropertyUtil.getPropertyInfo(Person.class, "age");
+        getName = Person.class.getMethod("getName");
+        setAge = Person.class.getMethod("setAge", int.class);
+        nameHandleAccessor = name.getValueAccessor(PropertyAccessStrategy.METHOD_HANDLE);
+        ageHandleAccessor = age.getValueAccessor(PropertyAccessStrategy.METHOD_HANDLE);
+    }
+
+    @Benchmark
+    public Object getValueDirect() {
+        return person.getName();
+    }
+
+    @Benchmark
+    public Object getValueReflective() throws Exception {
+        return getName.invoke(person);
+    }
+
+    @Benchmark
+    public Object getValueAccessor() {
+        return name.getValue(person);
+    }
+
+    @Benchmark
+    public Object getValueMethodHandle() throws Throwable {
+        return nameHandleAccessor.getValue(person);
+    }
+
+    @Benchmark
+    public Object getValueStaticHandle() throws Throwable {
+        return (Object) NAME_READ_HANDLE.invokeExact((Object) person);
+    }
+
+    @Benchmark
+    public void setValueDirect() {
+        person.setAge(counter++);
+    }
+
+    @Benchmark
+    public void setValueReflective() throws Exception {
+        setAge.invoke(person, counter++);
+    }
+
+    @Benchmark
+    public void setValueAccessor() {
+        age.setValue(person, counter++);
+    }
+
+    @Benchmark
+    public void setValueMethodHandle() throws Throwable {
+        ageHandleAccessor.setValue(person, counter++);
+    }
+
+    @Benchmark
+    public void setValueStaticHandle() throws Throwable {
+        AGE_WRITE_HANDLE.invokeExact((Object) person, (Object) counter++);
+    }
+
+    @Benchmark
+    public Object getIntBoxed() {
+        return age.getValue(person);
+    }
+
+    @Benchmark
+    public int getIntPrimitive() {
+        return age.getInt(person);
+    }
+
+    @Benchmark
+    public void setIntPrimitive() {
+        age.setInt(person, counter++);
+    }
+}
@@ -0,0 +1,98 @@
+package com.github.ruediste.c3java.benchmarks;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.ruediste.c3java.benchmarks.HotPathModel.Address;
+import com.github.ruediste.c3java.benchmarks.HotPathModel.Person;
+import com.github.ruediste.c3java.properties.PropertyInfo;
+import com.github.ruediste.c3java.properties.PropertyPath;
+import com.github.ruediste.c3java.properties.PropertyUtil;
+
+/**
+ * Measures the property hot paths: looking up the property info map with a
+ * warm and a cold cache, reading and writing a property and evaluating a
+ * property path of length two.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PropertyBenchmark {
+
+    Person person;
+    PropertyInfo name;
+    PropertyInfo age;
+    PropertyPath cityPath;
+    int counter;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        person = new Person();
+        person.setName("John");
+        person.setAddress(new Address());
+        person.getAddress().setCity("Zurich");
+
+        name = PropertyUtil.getPropertyInfo(Person.class, "name");
+        age = PropertyUtil.getPropertyInfo(Person.class, "age");
+
+        // built without MethodInvocationRecorder to keep the proxy generation
+        // out of this benchmark
+        cityPath = new PropertyPath();
+        cityPath.nodes.add(new PropertyPath.PropertyNode(PropertyUtil.getPropertyInfo(Person.class, "address")));
+        cityPath.nodes.add(new PropertyPath.PropertyNode(PropertyUtil.getPropertyInfo(Address.class, "city")));
+    }
+
+    @State(Scope.Thread)
+    public static class ColdCache {
+        @Setup(Level.Invocation)
+        public void clear() {
+            PropertyUtil.clearCache();
+        }
+    }
+
+    @Benchmark
+    public Map<String, PropertyInfo> getPropertyInfoMapWarm() {
+        return PropertyUtil.getPropertyInfoMap(Person.class);
+    }
+
+    @Benchmark
+    public Map<String, PropertyInfo> getPropertyInfoMapCold(ColdCache coldCache) {
+        return PropertyUtil.getPropertyInfoMap(Person.class);
+    }
+
+    @Benchmark
+    public Optional<PropertyInfo> tryGetPropertyInfo() {
+        return PropertyUtil.tryGetPropertyInfo(Person.class, "name");
+    }
+
+    @Benchmark
+    public Object getValue() {
+        return name.getValue(person);
+    }
+
+    @Benchmark
+    public void setValue() {
+        age.setValue(person, counter++);
+    }
+
+    @Benchmark
+    public Object evaluatePath() {
+        return cityPath.evaluate(person);
+    }
+}
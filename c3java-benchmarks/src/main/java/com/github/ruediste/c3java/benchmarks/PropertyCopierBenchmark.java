@@ -0,0 +1,105 @@
+package com.github.ruediste.c3java.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.ruediste.c3java.benchmarks.HotPathModel.Address;
+import com.github.ruediste.c3java.benchmarks.HotPathModel.Person;
+import com.github.ruediste.c3java.properties.PropertyCopier;
+import com.github.ruediste.c3java.properties.PropertyInfo;
+import com.github.ruediste.c3java.properties.PropertyUtil;
+
+/**
+ * Compares copying the properties of a {@link Person} to a DTO using a
+ * {@link PropertyCopier}, using a loop over the property info maps and using
+ * hand written code
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PropertyCopierBenchmark {
+
+    public static class PersonDto {
+        private String name;
+        private int age;
+        private Address address;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+
+        public Address getAddress() {
+            return address;
+        }
+
+        public void setAddress(Address address) {
+            this.address = address;
+        }
+    }
+
+    static final PropertyCopier COPIER = PropertyCopier.of(Person.class, PersonDto.class);
+
+    Person person;
+    PersonDto dto;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        person = new Person();
+        person.setName("John");
+        person.setAge(1000);
+        person.setAddress(new Address());
+        dto = new PersonDto();
+    }
+
+    @Benchmark
+    public PersonDto copyDirect() {
+        dto.setName(person.getName());
+        dto.setAge(person.getAge());
+        dto.setAddress(person.getAddress());
+        return dto;
+    }
+
+    @Benchmark
+    public PersonDto copyPropertyInfoLoop() {
+        Map<String, PropertyInfo> targetProperties = PropertyUtil.getPropertyInfoMap(PersonDto.class);
+        for (PropertyInfo source : PropertyUtil.getPropertyInfoMap(Person.class).values()) {
+            PropertyInfo target = targetProperties.get(source.getName());
+            if (target != null)
+                target.setValue(dto, source.getValue(person));
+        }
+        return dto;
+    }
+
+    @Benchmark
+    public PersonDto copyPropertyCopier() {
+        COPIER.copy(person, dto);
+        return dto;
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.ruediste.c3java.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.ruediste.c3java.benchmarks.HotPathModel.Address;
+import com.github.ruediste.c3java.benchmarks.HotPathModel.Person;
+import com.github.ruediste.c3java.properties.PropertyInfo;
+import com.github.ruediste.c3java.properties.PropertySnapshotter;
+import com.github.ruediste.c3java.properties.PropertyUtil;
+
+/**
+ * Compares taking a snapshot of all properties of a {@link Person} using a
+ * {@link PropertySnapshotter} with reading them into a map, and measures
+ * diffing two snapshots
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PropertySnapshotBenchmark {
+
+    static final PropertySnapshotter SNAPSHOTTER = PropertySnapshotter.of(Person.class);
+
+    Person person;
+    Object[] before;
+    Object[] after;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        person = new Person();
+        person.setName("John");
+        person.setAge(1000);
+        person.setAddress(new Address());
+        before = SNAPSHOTTER.snapshot(person);
+        person.setName("Jane");
+        after = SNAPSHOTTER.snapshot(person);
+    }
+
+    @Benchmark
+    public Map<String, Object> snapshotMap() {
+        Map<String, Object> result = new HashMap<>();
+        for (PropertyInfo property : PropertyUtil.getPropertyInfoMap(Person.class).values()) {
+            if (property.isReadable())
+                result.put(property.getName(), property.getValue(person));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Object[] snapshot() {
+        return SNAPSHOTTER.snapshot(person);
+    }
+
+    @Benchmark
+    public int[] diff() {
+        return SNAPSHOTTER.diff(before, after);
+    }
+}
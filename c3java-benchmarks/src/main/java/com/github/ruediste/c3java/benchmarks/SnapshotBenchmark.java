@@ -0,0 +1,116 @@
+package com.github.ruediste.c3java.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.ruediste.c3java.index.CacheSnapshot;
+import com.github.ruediste.c3java.linearization.JavaC3;
+import com.github.ruediste.c3java.properties.PropertyUtil;
+
+/**
+ * Measures the time to the first linearization and property info map of each
+ * class of the {@link ClassUniverse} in a fresh JVM, once computing everything
+ * and once after restoring a {@link CacheSnapshot}.
+ *
+ * <p>
+ * Each fork measures a single invocation. The snapshot and the list of classes
+ * are created by a separate JVM, so the measured code has not been run and
+ * compiled before. The classes are loaded and the library is initialized
+ * before the measurement.
+ * </p>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@State(Scope.Benchmark)
+public class SnapshotBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean snapshot;
+
+    List<Class<?>> classes;
+    ClassLoader loader;
+    Path file;
+    Path classesFile;
+
+    @Setup
+    public void setup() throws Exception {
+        file = Files.createTempFile("c3java", ".snapshot");
+        classesFile = Files.createTempFile("c3java", ".classes");
+        Process process = new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(), "-cp",
+                System.getProperty("java.class.path"), SnapshotBenchmark.class.getName(), file.toString(),
+                classesFile.toString()).inheritIO().start();
+        if (process.waitFor() != 0)
+            throw new RuntimeException("Error while creating the snapshot");
+
+        loader = SnapshotBenchmark.class.getClassLoader();
+        classes = new ArrayList<>();
+        for (String name : Files.readAllLines(classesFile)) {
+            classes.add(Class.forName(name, false, loader));
+        }
+
+        // initialize the library using classes outside of the universe
+        JavaC3.linearize(File.class);
+        PropertyUtil.getPropertyInfoMap(SnapshotBenchmark.class);
+        JavaC3.clearCache();
+        PropertyUtil.clearCache();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(file);
+        Files.delete(classesFile);
+    }
+
+    @Benchmark
+    public void firstLookups(Blackhole blackhole) throws IOException {
+        if (snapshot)
+            CacheSnapshot.restore(file, loader);
+        for (Class<?> cls : classes) {
+            blackhole.consume(JavaC3.linearize(cls));
+            blackhole.consume(PropertyUtil.getPropertyInfoMap(cls));
+        }
+    }
+
+    /**
+     * Save a snapshot of the classes of the {@link ClassUniverse} whose
+     * properties can be determined to the file given as first argument, and
+     * the names of these classes to the file given as second argument.
+     */
+    public static void main(String[] args) throws IOException {
+        List<String> names = new ArrayList<>();
+        for (Class<?> cls : ClassUniverse.get()) {
+            try {
+                PropertyUtil.getPropertyInfoMap(cls);
+                names.add(cls.getName());
+            } catch (RuntimeException e) {
+                // properties cannot be determined, skip
+            }
+        }
+        CacheSnapshot.save(Paths.get(args[0]), SnapshotBenchmark.class.getClassLoader());
+        Files.write(Paths.get(args[1]), names);
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.ruediste.c3java.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.ruediste.c3java.linearization.DefaultDirectSuperclassesInspector;
+import com.github.ruediste.c3java.linearization.DirectSuperclassesInspector;
+import com.github.ruediste.c3java.linearization.JavaC3;
+import com.github.ruediste.c3java.linearization.Linearization;
+import com.github.ruediste.c3java.linearization.ParallelLinearizer;
+
+/**
+ * Measures the wall-clock time of linearizing a whole class universe with an
+ * empty cache, sequentially and with a growing number of fork/join workers.
+ * Each invocation uses a fresh inspector, and thereby a fresh cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupLinearizationBenchmark {
+
+    @Param({ "1", "2", "4", "8" })
+    public int parallelism;
+
+    List<Class<?>> classes;
+    ForkJoinPool pool;
+    DirectSuperclassesInspector inspector;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        classes = ClassUniverse.get();
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() {
+        pool.shutdown();
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation() {
+        inspector = new DefaultDirectSuperclassesInspector();
+    }
+
+    @Benchmark
+    public Map<Class<?>, Linearization> sequential() {
+        return JavaC3.linearizeAll(classes, inspector);
+    }
+
+    @Benchmark
+    public Map<Class<?>, Linearization> parallel() {
+        return ParallelLinearizer.linearizeAll(classes, inspector, pool);
+    }
+}
@@ -0,0 +1,109 @@
+package com.github.ruediste.c3java.index.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+
+import com.github.ruediste.c3java.index.ReflectionIndex;
+import com.github.ruediste.c3java.index.ReflectionIndexGenerator;
+
+/**
+ * Write the {@link ReflectionIndex} of all classes in the output directory of
+ * the project to {@link ReflectionIndex#RESOURCE}.
+ *
+ * <p>
+ * The classes are loaded in an isolated class loader containing the output
+ * directory and the compile class path. Classes which cannot be loaded are
+ * skipped and are linearized by reflection at runtime.
+ * </p>
+ */
+@Mojo(name = "index", defaultPhase = LifecyclePhase.PROCESS_CLASSES, requiresDependencyResolution = ResolutionScope.COMPILE, threadSafe = true)
+public class IndexMojo extends AbstractMojo {
+
+    @Parameter(defaultValue = "${project.build.outputDirectory}", required = true)
+    private File classesDirectory;
+
+    @Parameter(defaultValue = "${project.compileClasspathElements}", readonly = true, required = true)
+    private List<String> classpathElements;
+
+    @Parameter(property = "c3java.index.skip", defaultValue = "false")
+    private boolean skip;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        if (skip) {
+            getLog().info("Skipping reflection index");
+            return;
+        }
+        if (!classesDirectory.isDirectory()) {
+            getLog().info("No classes to index");
+            return;
+        }
+
+        Path root = classesDirectory.toPath();
+        Path indexFile = root.resolve(ReflectionIndex.RESOURCE);
+        try {
+            // an outdated index would be picked up while generating the new
+            // one
+            Files.deleteIfExists(indexFile);
+
+            List<String> classNames;
+            try (Stream<Path> files = Files.walk(root)) {
+                classNames = files.filter(p -> p.toString().endsWith(".class"))
+                        .map(p -> root.relativize(p).toString()).filter(p -> !p.endsWith("module-info.class")
+                                && !p.endsWith("package-info.class"))
+                        .map(p -> p.substring(0, p.length() - ".class".length()).replace(File.separatorChar, '.'))
+                        .sorted().collect(Collectors.toList());
+            }
+
+            ReflectionIndexGenerator generator = new ReflectionIndexGenerator();
+            int skipped = 0;
+            try (URLClassLoader classLoader = new URLClassLoader(classPath(),
+                    ClassLoader.getSystemClassLoader().getParent())) {
+                for (String className : classNames) {
+                    try {
+                        generator.add(Class.forName(className, false, classLoader));
+                    } catch (ClassNotFoundException | LinkageError | RuntimeException e) {
+                        getLog().debug("Skipping " + className + ": " + e);
+                        skipped++;
+                    }
+                }
+            }
+
+            Files.createDirectories(indexFile.getParent());
+            try (OutputStream out = Files.newOutputStream(indexFile)) {
+                generator.build().write(out);
+            }
+            getLog().info("Indexed " + (classNames.size() - skipped) + " classes, skipped " + skipped);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error while writing " + indexFile, e);
+        }
+    }
+
+    private URL[] classPath() throws MalformedURLException {
+        List<URL> urls = new ArrayList<>();
+        urls.add(classesDirectory.toURI().toURL());
+        for (String element : classpathElements) {
+            File file = new File(element);
+            if (!file.equals(classesDirectory))
+                urls.add(file.toURI().toURL());
+        }
+        return urls.toArray(new URL[urls.size()]);
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.ruediste.c3java.cache;
+
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import com.google.common.cache.CacheStats;
+
+/**
+ * Cache of values computed from a class. Used by the caches of c3java, which
+ * are created using {@link ClassCaches#create(String)}.
+ *
+ * <p>
+ * Implementations have to be thread safe. A value may be computed more than
+ * once if it is requested concurrently.
+ * </p>
+ */
+public interface ClassCache<V> {
+
+    /**
+     * Return the value cached for the given type. If no value is cached, it is
+     * computed using the loader and cached.
+     */
+    V get(Class<?> type, Function<Class<?>, ? extends V> loader);
+
+    /**
+     * Return the value cached for the given type, or null
+     */
+    V getIfPresent(Class<?> type);
+
+    /**
+     * Remove the values of all types matching the predicate
+     */
+    void invalidateIf(Predicate<Class<?>> predicate);
+
+    /**
+     * Remove all values
+     */
+    void invalidateAll();
+
+    /**
+     * Return the types with a cached value. The returned set is a copy.
+     */
+    Set<Class<?>> keys();
+
+    /**
+     * Return the statistics of this cache. Depending on the implementation,
+     * not all fields are recorded.
+     */
+    CacheStats stats();
+}
@@ -0,0 +1,17 @@
+package com.github.ruediste.c3java.cache;
+
+/**
+ * Creates the {@link ClassCache}s used by c3java
+ *
+ * @see ClassCaches#setFactory(ClassCacheFactory)
+ */
+public interface ClassCacheFactory {
+
+    /**
+     * Create a new, empty cache.
+     * 
+     * @param name
+     *            name of the cache, see {@link ClassCaches#create(String)}
+     */
+    <V> ClassCache<V> create(String name);
+}
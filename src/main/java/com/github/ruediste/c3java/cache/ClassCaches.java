@@ -0,0 +1,172 @@
+package com.github.ruediste.c3java.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import com.github.ruediste.c3java.instrumentation.Instrumentation;
+import com.github.ruediste.c3java.instrumentation.Instrumentations;
+import com.google.common.cache.CacheStats;
+
+/**
+ * Creates the {@link ClassCache}s of c3java and allows to choose their
+ * implementation.
+ *
+ * <p>
+ * By default, {@link ClassValueCache}s are used. The implementation can be
+ * changed at any time using {@link #setFactory(ClassCacheFactory)}, which
+ * replaces the backends of all caches created so far.
+ * </p>
+ */
+public final class ClassCaches {
+
+    private ClassCaches() {
+    }
+
+    private static final ClassCacheFactory DEFAULT_FACTORY = new ClassCacheFactory() {
+        @Override
+        public <V> ClassCache<V> create(String name) {
+            return new ClassValueCache<>();
+        }
+    };
+
+    private static volatile ClassCacheFactory factory = DEFAULT_FACTORY;
+
+    static volatile boolean recordStats;
+
+    private static final Map<String, SwitchableClassCache<?>> caches = new LinkedHashMap<>();
+
+    /**
+     * Cache delegating to a backend which can be replaced
+     */
+    private static class SwitchableClassCache<V> implements ClassCache<V> {
+        private final String name;
+        private volatile ClassCache<V> backend;
+
+        SwitchableClassCache(String name, ClassCacheFactory factory) {
+            this.name = name;
+            switchTo(factory);
+        }
+
+        void switchTo(ClassCacheFactory factory) {
+            backend = factory.create(name);
+        }
+
+        @Override
+        public V get(Class<?> type, Function<Class<?>, ? extends V> loader) {
+            Instrumentation instrumentation = Instrumentations.get();
+            if (instrumentation == Instrumentations.NOOP)
+                return backend.get(type, loader);
+            MissDetector<V> detector = new MissDetector<>(loader);
+            V value = backend.get(type, detector);
+            if (detector.missed)
+                instrumentation.cacheMiss(name);
+            else
+                instrumentation.cacheHit(name);
+            return value;
+        }
+
+        @Override
+        public V getIfPresent(Class<?> type) {
+            return backend.getIfPresent(type);
+        }
+
+        @Override
+        public void invalidateIf(Predicate<Class<?>> predicate) {
+            backend.invalidateIf(predicate);
+        }
+
+        @Override
+        public void invalidateAll() {
+            backend.invalidateAll();
+        }
+
+        @Override
+        public Set<Class<?>> keys() {
+            return backend.keys();
+        }
+
+        @Override
+        public CacheStats stats() {
+            return backend.stats();
+        }
+    }
+
+    /**
+     * Loader remembering if it has been invoked
+     */
+    private static class MissDetector<V> implements Function<Class<?>, V> {
+        private final Function<Class<?>, ? extends V> loader;
+        boolean missed;
+
+        MissDetector(Function<Class<?>, ? extends V> loader) {
+            this.loader = loader;
+        }
+
+        @Override
+        public V apply(Class<?> type) {
+            missed = true;
+            return loader.apply(type);
+        }
+    }
+
+    /**
+     * Create a cache using the current factory. The name identifies the cache
+     * in the {@link #stats()} and has to be unique.
+     */
+    public static <V> ClassCache<V> create(String name) {
+        synchronized (caches) {
+            if (caches.containsKey(name))
+                throw new IllegalArgumentException("Duplicate cache name " + name);
+            SwitchableClassCache<V> cache = new SwitchableClassCache<>(name, factory);
+            caches.put(name, cache);
+            return cache;
+        }
+    }
+
+    /**
+     * Use the given factory for all caches. The caches created so far are
+     * switched to a new backend created by the factory, dropping their
+     * contents and statistics.
+     */
+    public static void setFactory(ClassCacheFactory factory) {
+        synchronized (caches) {
+            ClassCaches.factory = factory;
+            for (SwitchableClassCache<?> cache : caches.values()) {
+                cache.switchTo(factory);
+            }
+        }
+    }
+
+    /**
+     * Restore the default factory
+     */
+    public static void resetFactory() {
+        setFactory(DEFAULT_FACTORY);
+    }
+
+    /**
+     * Enable or disable recording the statistics of the default
+     * {@link ClassValueCache}s. Disabled by default, to keep cache hits as
+     * cheap as possible. The {@link GuavaClassCache}s always record their
+     * statistics.
+     */
+    public static void setRecordStats(boolean recordStats) {
+        ClassCaches.recordStats = recordStats;
+    }
+
+    /**
+     * Return the statistics of all caches by name
+     *
+     * @see #setRecordStats(boolean)
+     */
+    public static Map<String, CacheStats> stats() {
+        Map<String, CacheStats> result = new LinkedHashMap<>();
+        synchronized (caches) {
+            caches.forEach((name, cache) -> result.put(name, cache.stats()));
+        }
+        return result;
+    }
+}
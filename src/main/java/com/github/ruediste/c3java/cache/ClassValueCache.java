@@ -0,0 +1,129 @@
+package com.github.ruediste.c3java.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import com.google.common.cache.CacheStats;
+
+/**
+ * Unbounded {@link ClassCache} attaching the values to the classes using a
+ * {@link ClassValue}. This is the default implementation.
+ *
+ * <p>
+ * A value lives exactly as long as its class, even if the value references the
+ * class or its class loader. Thus the cache never pins a class loader. Lookups
+ * do not acquire any lock. To support invalidation, the cached types are
+ * additionally tracked in a weak set, which is only modified when a value is
+ * computed or removed.
+ * </p>
+ *
+ * <p>
+ * Statistics are only recorded while enabled by
+ * {@link ClassCaches#setRecordStats(boolean)}, to keep cache hits as cheap as
+ * possible. Since values are only removed by invalidation or garbage
+ * collection, the eviction count is always zero.
+ * </p>
+ */
+public class ClassValueCache<V> implements ClassCache<V> {
+
+    private static class Holder<V> {
+        volatile V value;
+    }
+
+    private final ClassValue<Holder<V>> holders = new ClassValue<Holder<V>>() {
+        @Override
+        protected Holder<V> computeValue(Class<?> type) {
+            return new Holder<>();
+        }
+    };
+
+    private final Set<Class<?>> cachedTypes = Collections
+            .synchronizedSet(Collections.newSetFromMap(new WeakHashMap<Class<?>, Boolean>()));
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadSuccessCount = new LongAdder();
+    private final LongAdder loadExceptionCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+
+    @Override
+    public V get(Class<?> type, Function<Class<?>, ? extends V> loader) {
+        Holder<V> holder = holders.get(type);
+        V value = holder.value;
+        if (value != null) {
+            if (ClassCaches.recordStats)
+                hitCount.increment();
+            return value;
+        }
+        boolean recordStats = ClassCaches.recordStats;
+        long start = recordStats ? System.nanoTime() : 0;
+        try {
+            value = loader.apply(type);
+        } catch (RuntimeException | Error e) {
+            if (recordStats) {
+                missCount.increment();
+                loadExceptionCount.increment();
+            }
+            throw e;
+        }
+        if (recordStats) {
+            missCount.increment();
+            loadSuccessCount.increment();
+            totalLoadTime.add(System.nanoTime() - start);
+        }
+        holder.value = value;
+        cachedTypes.add(type);
+        return value;
+    }
+
+    @Override
+    public V getIfPresent(Class<?> type) {
+        V value = holders.get(type).value;
+        if (ClassCaches.recordStats) {
+            if (value != null)
+                hitCount.increment();
+            else
+                missCount.increment();
+        }
+        return value;
+    }
+
+    @Override
+    public void invalidateIf(Predicate<Class<?>> predicate) {
+        List<Class<?>> types;
+        synchronized (cachedTypes) {
+            types = new ArrayList<>(cachedTypes);
+        }
+        for (Class<?> type : types) {
+            if (predicate.test(type)) {
+                holders.get(type).value = null;
+                cachedTypes.remove(type);
+            }
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        invalidateIf(x -> true);
+    }
+
+    @Override
+    public Set<Class<?>> keys() {
+        synchronized (cachedTypes) {
+            return new HashSet<>(cachedTypes);
+        }
+    }
+
+    @Override
+    public CacheStats stats() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), loadSuccessCount.sum(), loadExceptionCount.sum(),
+                totalLoadTime.sum(), 0);
+    }
+}
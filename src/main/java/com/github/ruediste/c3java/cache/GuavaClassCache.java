@@ -0,0 +1,163 @@
+package com.github.ruediste.c3java.cache;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * {@link ClassCache} backed by a Guava {@link Cache}, supporting a maximum
+ * size or weight with least recently used eviction, weak keys and soft values.
+ *
+ * <p>
+ * Use {@link #factory()} to configure the caches and pass the factory to
+ * {@link ClassCaches#setFactory(ClassCacheFactory)}. All statistics are
+ * recorded.
+ * </p>
+ *
+ * <p>
+ * Note that most cached values reference their class. The cache references
+ * its values strongly, so with weak keys alone such entries are never
+ * collected and keep their class loader alive. Combine weak keys with soft
+ * values, or configure a maximum size or weight, to release them.
+ * </p>
+ */
+public class GuavaClassCache<V> implements ClassCache<V> {
+
+    private final Cache<Class<?>, V> cache;
+
+    public GuavaClassCache(Cache<Class<?>, V> cache) {
+        this.cache = cache;
+    }
+
+    public static Factory factory() {
+        return new Factory();
+    }
+
+    /**
+     * Factory for {@link GuavaClassCache}s. The configuration applies to all
+     * caches created afterwards.
+     */
+    public static class Factory implements ClassCacheFactory {
+        private long maximumSize = -1;
+        private long maximumWeight = -1;
+        private Weigher<Class<?>, Object> weigher;
+        private boolean weakKeys;
+        private boolean softValues;
+        private int concurrencyLevel = -1;
+
+        private Factory() {
+        }
+
+        /**
+         * Limit the number of entries of each cache
+         */
+        public Factory maximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Limit the total weight of the entries of each cache
+         */
+        public Factory maximumWeight(long maximumWeight, Weigher<Class<?>, Object> weigher) {
+            this.maximumWeight = maximumWeight;
+            this.weigher = weigher;
+            return this;
+        }
+
+        /**
+         * Set the number of segments of each cache. The maximum size and
+         * weight are divided among the segments, so use a low value for small
+         * caches.
+         */
+        public Factory concurrencyLevel(int concurrencyLevel) {
+            this.concurrencyLevel = concurrencyLevel;
+            return this;
+        }
+
+        /**
+         * Reference the keys weakly, comparing them by identity. This does not
+         * release values referencing their class, see {@link #softValues()}.
+         */
+        public Factory weakKeys() {
+            weakKeys = true;
+            return this;
+        }
+
+        /**
+         * Reference the values softly, so they are collected when memory runs
+         * low. Together with {@link #weakKeys()}, entries whose value
+         * references the class are released as well.
+         */
+        public Factory softValues() {
+            softValues = true;
+            return this;
+        }
+
+        @Override
+        public <V> ClassCache<V> create(String name) {
+            CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+            if (maximumSize >= 0)
+                builder.maximumSize(maximumSize);
+            if (maximumWeight >= 0)
+                builder.maximumWeight(maximumWeight).weigher(weigher);
+            if (weakKeys)
+                builder.weakKeys();
+            if (softValues)
+                builder.softValues();
+            if (concurrencyLevel > 0)
+                builder.concurrencyLevel(concurrencyLevel);
+            return new GuavaClassCache<>(builder.<Class<?>, V> build());
+        }
+    }
+
+    @Override
+    public V get(Class<?> type, Function<Class<?>, ? extends V> loader) {
+        try {
+            return cache.get(type, () -> loader.apply(type));
+        } catch (UncheckedExecutionException | ExecutionError e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw e;
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    @Override
+    public V getIfPresent(Class<?> type) {
+        return cache.getIfPresent(type);
+    }
+
+    @Override
+    public void invalidateIf(Predicate<Class<?>> predicate) {
+        cache.asMap().keySet().removeIf(predicate);
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public Set<Class<?>> keys() {
+        return new HashSet<>(cache.asMap().keySet());
+    }
+
+    @Override
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
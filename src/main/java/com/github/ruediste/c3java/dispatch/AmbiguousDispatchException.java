@@ -0,0 +1,13 @@
+package com.github.ruediste.c3java.dispatch;
+
+/**
+ * Thrown by a {@link Dispatcher} if there is no single most specific handler
+ * applicable to the argument types.
+ */
+public class AmbiguousDispatchException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public AmbiguousDispatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,141 @@
+package com.github.ruediste.c3java.dispatch;
+
+/**
+ * Call site of a {@link Dispatcher} with an inline cache keyed by the argument
+ * types.
+ *
+ * <p>
+ * The first {@link #POLYMORPHIC_LIMIT} distinct argument type combinations
+ * seen at the site are cached directly in the site. In the common monomorphic
+ * case a lookup is a single identity comparison of the receiver type. Once more
+ * combinations are seen, the site becomes megamorphic and delegates to the
+ * dispatch table of the {@link Dispatcher}.
+ * </p>
+ *
+ * <p>
+ * Sites can be shared between threads. The cache is an immutable object which
+ * is replaced as a whole.
+ * </p>
+ */
+public final class DispatchSite<H> {
+
+    public static final int POLYMORPHIC_LIMIT = 4;
+
+    private static final class Cache {
+        /**
+         * the receiver types, which are the types of the first argument
+         */
+        final Class<?>[] receiverTypes;
+
+        /**
+         * the types of the remaining arguments, null for single arguments
+         */
+        final Class<?>[][] otherTypes;
+
+        final Object[] targets;
+
+        Cache(Class<?>[] receiverTypes, Class<?>[][] otherTypes, Object[] targets) {
+            this.receiverTypes = receiverTypes;
+            this.otherTypes = otherTypes;
+            this.targets = targets;
+        }
+    }
+
+    private static final Cache EMPTY = new Cache(new Class<?>[0], new Class<?>[0][], new Object[0]);
+
+    private final Dispatcher<H> dispatcher;
+
+    /**
+     * the inline cache, null if the site is megamorphic
+     */
+    private volatile Cache cache = EMPTY;
+
+    DispatchSite(Dispatcher<H> dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    public Dispatcher<H> getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Return the most specific handler for a single argument of the given
+     * type, or null if no handler is applicable.
+     */
+    @SuppressWarnings("unchecked")
+    public H lookup(Class<?> receiverType) {
+        Cache cache = this.cache;
+        if (cache == null)
+            return dispatcher.lookup(receiverType);
+        Class<?>[] receiverTypes = cache.receiverTypes;
+        for (int i = 0; i < receiverTypes.length; i++) {
+            if (receiverTypes[i] == receiverType)
+                return (H) cache.targets[i];
+        }
+        H target = dispatcher.lookup(receiverType);
+        update(cache, receiverType, null, target);
+        return target;
+    }
+
+    /**
+     * Return the most specific handler for arguments of the given types, or
+     * null if no handler is applicable.
+     */
+    @SuppressWarnings("unchecked")
+    public H lookup(Class<?>... argumentTypes) {
+        if (argumentTypes.length == 1)
+            return lookup(argumentTypes[0]);
+        Cache cache = this.cache;
+        if (cache == null)
+            return dispatcher.lookup(argumentTypes);
+        Class<?>[] receiverTypes = cache.receiverTypes;
+        for (int i = 0; i < receiverTypes.length; i++) {
+            if (receiverTypes[i] == argumentTypes[0] && matches(cache.otherTypes[i], argumentTypes))
+                return (H) cache.targets[i];
+        }
+        H target = dispatcher.lookup(argumentTypes);
+        Class<?>[] otherTypes = new Class<?>[argumentTypes.length - 1];
+        System.arraycopy(argumentTypes, 1, otherTypes, 0, otherTypes.length);
+        update(cache, argumentTypes[0], otherTypes, target);
+        return target;
+    }
+
+    private static boolean matches(Class<?>[] otherTypes, Class<?>[] argumentTypes) {
+        for (int i = 0; i < otherTypes.length; i++) {
+            if (otherTypes[i] != argumentTypes[i + 1])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Add an entry to the inline cache. If the cache is full, the site turns
+     * megamorphic. Concurrent updates may lose entries, which only causes
+     * additional lookups in the dispatcher.
+     */
+    private void update(Cache cache, Class<?> receiverType, Class<?>[] otherTypes, H target) {
+        int size = cache.receiverTypes.length;
+        if (size >= POLYMORPHIC_LIMIT) {
+            this.cache = null;
+            return;
+        }
+        Class<?>[] receiverTypes = new Class<?>[size + 1];
+        Class<?>[][] others = new Class<?>[size + 1][];
+        Object[] targets = new Object[size + 1];
+        System.arraycopy(cache.receiverTypes, 0, receiverTypes, 0, size);
+        System.arraycopy(cache.otherTypes, 0, others, 0, size);
+        System.arraycopy(cache.targets, 0, targets, 0, size);
+        receiverTypes[size] = receiverType;
+        others[size] = otherTypes;
+        targets[size] = target;
+        this.cache = new Cache(receiverTypes, others, targets);
+    }
+
+    /**
+     * Return true if the site has seen too many argument type combinations to
+     * cache them inline.
+     */
+    public boolean isMegamorphic() {
+        return cache == null;
+    }
+}
@@ -0,0 +1,272 @@
+package com.github.ruediste.c3java.dispatch;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.github.ruediste.c3java.linearization.DirectSuperclassesInspector;
+import com.github.ruediste.c3java.linearization.JavaC3;
+import com.github.ruediste.c3java.linearization.PrecedenceIndex;
+import com.github.ruediste.c3java.linearization.PrecedenceIndex.IndexedLinearization;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Selects the most specific handler for the runtime types of one or more
+ * arguments, based on the {@link JavaC3} linearizations of the argument types.
+ *
+ * <p>
+ * A handler is registered with one parameter type per argument. It is
+ * applicable if each parameter type is part of the linearization of the
+ * corresponding argument type. Handler A is more specific than handler B if
+ * for each argument, the parameter type of A comes at or before the parameter
+ * type of B in the linearization of the argument type. If there is no single
+ * most specific applicable handler, the dispatch is ambiguous and an
+ * {@link AmbiguousDispatchException} is thrown.
+ * </p>
+ *
+ * <p>
+ * The result of the selection, including an ambiguity, is stored in dispatch
+ * tables based on {@link ClassValue}s. There is one level of tables per
+ * argument. The tables of a level are attached to the type of the preceding
+ * argument and only reference the dispatcher and the argument types weakly.
+ * Selected handlers are stored as their index, so the tables never keep a
+ * class, the dispatcher or a handler alive. To skip even the table
+ * lookup, create a {@link DispatchSite} for each call site using
+ * {@link #createSite()}.
+ * </p>
+ *
+ * <p>
+ * Dispatchers are immutable and created using {@link #builder(int)}.
+ * </p>
+ */
+public class Dispatcher<H> {
+
+    /**
+     * Marks argument types without applicable handler in the dispatch tables
+     */
+    private static final Object NO_HANDLER = new Object();
+
+    private final int arity;
+    private final PrecedenceIndex index;
+    private final List<H> handlers;
+    private final int[][] parameterTypeIds;
+    private final List<Class<?>[]> parameterTypes;
+
+    /**
+     * Cached result of an ambiguous selection
+     */
+    private static final class Ambiguity {
+        final String message;
+
+        Ambiguity(String message) {
+            this.message = message;
+        }
+    }
+
+    /**
+     * dispatch table of the first argument
+     */
+    private final Table table = new Table(this, new Class<?>[0]);
+
+    /**
+     * Dispatch table of an argument, given the types of the preceding
+     * arguments. The value of a type is either the next table, or the result
+     * of the selection if it is the last argument. Handlers are represented
+     * by their index in {@link Dispatcher#handlers}.
+     */
+    private static final class Table extends ClassValue<Object> {
+        private final WeakReference<Dispatcher<?>> dispatcher;
+        private final WeakReference<?>[] precedingTypes;
+
+        Table(Dispatcher<?> dispatcher, Class<?>[] precedingTypes) {
+            this.dispatcher = new WeakReference<>(dispatcher);
+            this.precedingTypes = new WeakReference<?>[precedingTypes.length];
+            for (int i = 0; i < precedingTypes.length; i++) {
+                this.precedingTypes[i] = new WeakReference<>(precedingTypes[i]);
+            }
+        }
+
+        @Override
+        protected Object computeValue(Class<?> type) {
+            // the dispatcher and the preceding types are reachable while
+            // looking up their table
+            Dispatcher<?> dispatcher = this.dispatcher.get();
+            Class<?>[] argumentTypes = new Class<?>[precedingTypes.length + 1];
+            for (int i = 0; i < precedingTypes.length; i++) {
+                argumentTypes[i] = (Class<?>) precedingTypes[i].get();
+            }
+            argumentTypes[precedingTypes.length] = type;
+            if (argumentTypes.length == dispatcher.arity)
+                return dispatcher.select(argumentTypes);
+            return new Table(dispatcher, argumentTypes);
+        }
+    }
+
+    private Dispatcher(Builder<H> builder) {
+        arity = builder.arity;
+        index = builder.index;
+        handlers = ImmutableList.copyOf(builder.handlers);
+        parameterTypes = ImmutableList.copyOf(builder.parameterTypes);
+        parameterTypeIds = new int[handlers.size()][];
+        for (int i = 0; i < handlers.size(); i++) {
+            parameterTypeIds[i] = index.ids(parameterTypes.get(i));
+        }
+    }
+
+    public static <H> Builder<H> builder(int arity) {
+        return new Builder<>(arity);
+    }
+
+    public static class Builder<H> {
+        private final int arity;
+        private PrecedenceIndex index = PrecedenceIndex.getDefault();
+        private final List<H> handlers = new ArrayList<>();
+        private final List<Class<?>[]> parameterTypes = new ArrayList<>();
+
+        private Builder(int arity) {
+            if (arity < 1)
+                throw new IllegalArgumentException("arity must be at least one");
+            this.arity = arity;
+        }
+
+        /**
+         * Use the given {@link DirectSuperclassesInspector} to linearize the
+         * argument types.
+         */
+        public Builder<H> inspector(DirectSuperclassesInspector directParentClassesReader) {
+            index = new PrecedenceIndex(directParentClassesReader);
+            return this;
+        }
+
+        /**
+         * Register a handler for the given parameter types. Each combination
+         * of parameter types can only be registered once.
+         */
+        public Builder<H> register(H handler, Class<?>... parameterTypes) {
+            if (parameterTypes.length != arity)
+                throw new IllegalArgumentException(
+                        "Expected " + arity + " parameter types but got " + Arrays.toString(parameterTypes));
+            for (Class<?>[] existing : this.parameterTypes) {
+                if (Arrays.equals(existing, parameterTypes))
+                    throw new IllegalArgumentException(
+                            "A handler is already registered for " + Arrays.toString(parameterTypes));
+            }
+            handlers.add(handler);
+            this.parameterTypes.add(parameterTypes.clone());
+            return this;
+        }
+
+        public Dispatcher<H> build() {
+            return new Dispatcher<>(this);
+        }
+    }
+
+    public int getArity() {
+        return arity;
+    }
+
+    /**
+     * Create a new call site with an inline cache
+     */
+    public DispatchSite<H> createSite() {
+        return new DispatchSite<>(this);
+    }
+
+    /**
+     * Return the most specific handler for a single argument of the given
+     * type, or null if no handler is applicable.
+     *
+     * @throws AmbiguousDispatchException
+     *             if there is no single most specific handler
+     */
+    public H lookup(Class<?> argumentType) {
+        if (arity != 1)
+            throw new IllegalArgumentException("Expected " + arity + " argument types");
+        return unwrap(table.get(argumentType));
+    }
+
+    /**
+     * Return the most specific handler for arguments of the given types, or
+     * null if no handler is applicable.
+     *
+     * @throws AmbiguousDispatchException
+     *             if there is no single most specific handler
+     */
+    public H lookup(Class<?>... argumentTypes) {
+        if (argumentTypes.length != arity)
+            throw new IllegalArgumentException(
+                    "Expected " + arity + " argument types but got " + Arrays.toString(argumentTypes));
+        Object result = table.get(argumentTypes[0]);
+        for (int i = 1; i < arity; i++) {
+            result = ((Table) result).get(argumentTypes[i]);
+        }
+        return unwrap(result);
+    }
+
+    private H unwrap(Object result) {
+        if (result == NO_HANDLER)
+            return null;
+        if (result instanceof Ambiguity)
+            throw new AmbiguousDispatchException(((Ambiguity) result).message);
+        return handlers.get((Integer) result);
+    }
+
+    /**
+     * Select the most specific handler for the given argument types
+     *
+     * @return the index of the handler, {@link #NO_HANDLER} or an
+     *         {@link Ambiguity}
+     */
+    private Object select(Class<?>[] argumentTypes) {
+        IndexedLinearization[] linearizations = new IndexedLinearization[arity];
+        for (int i = 0; i < arity; i++) {
+            linearizations[i] = index.get(argumentTypes[i]);
+        }
+
+        // positions of the parameter types of the best handlers found so far
+        List<int[]> bestPositions = new ArrayList<>();
+        List<Integer> best = new ArrayList<>();
+        handlers: for (int h = 0; h < handlers.size(); h++) {
+            int[] positions = new int[arity];
+            for (int i = 0; i < arity; i++) {
+                positions[i] = linearizations[i].position(parameterTypeIds[h][i]);
+                if (positions[i] < 0)
+                    continue handlers;
+            }
+
+            for (int[] other : bestPositions) {
+                if (isAtLeastAsSpecific(other, positions))
+                    continue handlers;
+            }
+            for (int b = bestPositions.size() - 1; b >= 0; b--) {
+                if (isAtLeastAsSpecific(positions, bestPositions.get(b))) {
+                    bestPositions.remove(b);
+                    best.remove(b);
+                }
+            }
+            bestPositions.add(positions);
+            best.add(h);
+        }
+
+        if (best.isEmpty())
+            return NO_HANDLER;
+        if (best.size() > 1) {
+            List<String> candidates = new ArrayList<>();
+            for (int h : best) {
+                candidates.add(Arrays.toString(parameterTypes.get(h)));
+            }
+            return new Ambiguity("Ambiguous dispatch for argument types " + Arrays.toString(argumentTypes)
+                    + ", candidates: " + candidates);
+        }
+        return best.get(0);
+    }
+
+    private static boolean isAtLeastAsSpecific(int[] positions, int[] otherPositions) {
+        for (int i = 0; i < positions.length; i++) {
+            if (positions[i] > otherPositions[i])
+                return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,128 @@
+package com.github.ruediste.c3java.index;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import com.github.ruediste.c3java.linearization.DefaultDirectSuperclassesInspector;
+import com.github.ruediste.c3java.linearization.JavaC3;
+import com.github.ruediste.c3java.properties.PropertyUtil;
+
+/**
+ * Saves the contents of the {@link JavaC3} and {@link PropertyUtil} caches to a
+ * file and restores them on the next start, to reduce the time to warm up the
+ * caches after a restart.
+ *
+ * <p>
+ * Typically {@link #save(Path)} is called on shutdown and
+ * {@link #restore(Path)} on startup. The snapshot is a {@link ReflectionIndex}
+ * including the stamps of the class files. Restoring reads the file and
+ * registers the index for a class loader. The classes and members are
+ * resolved lazily when they are looked up for the first time. Entries of
+ * classes whose class file changed are skipped.
+ * </p>
+ *
+ * <p>
+ * A snapshot covers the classes defined by a single class loader, since an
+ * index is registered per class loader and class loaders cannot be identified
+ * across restarts. Applications using several class loaders, for example one
+ * per web application, save and restore one snapshot per class loader.
+ * Entries of classes defined by other class loaders are never used.
+ * </p>
+ *
+ * <p>
+ * Only the linearizations of the {@link DefaultDirectSuperclassesInspector} are
+ * saved.
+ * </p>
+ */
+public class CacheSnapshot {
+
+    private CacheSnapshot() {
+    }
+
+    /**
+     * Create a {@link ReflectionIndex} of the currently cached classes defined
+     * by the context class loader of the current thread
+     */
+    public static ReflectionIndex create() {
+        return create(Thread.currentThread().getContextClassLoader());
+    }
+
+    /**
+     * Create a {@link ReflectionIndex} of the currently cached classes defined
+     * by the given class loader
+     */
+    public static ReflectionIndex create(ClassLoader classLoader) {
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        classes.addAll(JavaC3.getCachedLinearizations(DefaultDirectSuperclassesInspector.INSTANCE).keySet());
+        for (Class<?> type : PropertyUtil.getCachedTypes()) {
+            JavaC3.tryAllSuperclasses(type).ifPresent(classes::addAll);
+        }
+
+        ReflectionIndexGenerator generator = new ReflectionIndexGenerator(true);
+        for (Class<?> cls : classes) {
+            // classes of the bootstrap class loader are never indexed
+            if (classLoader == null || cls.getClassLoader() != classLoader || cls.isArray())
+                continue;
+            generator.add(cls);
+        }
+        return generator.build();
+    }
+
+    /**
+     * Save the cached classes of the context class loader of the current
+     * thread.
+     *
+     * @see #save(Path, ClassLoader)
+     */
+    public static void save(Path file) throws IOException {
+        save(file, Thread.currentThread().getContextClassLoader());
+    }
+
+    /**
+     * Save the currently cached classes defined by the given class loader to
+     * the given file. The file is replaced atomically.
+     */
+    public static void save(Path file, ClassLoader classLoader) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            create(classLoader).write(out);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Restore a snapshot for the context class loader of the current thread.
+     *
+     * @see #restore(Path, ClassLoader)
+     */
+    public static boolean restore(Path file) throws IOException {
+        return restore(file, Thread.currentThread().getContextClassLoader());
+    }
+
+    /**
+     * Restore a snapshot for the given class loader. The snapshot is merged
+     * with the index of the class loader. Entries from the snapshot take
+     * precedence.
+     *
+     * @return false if the file does not exist
+     */
+    public static boolean restore(Path file, ClassLoader classLoader) throws IOException {
+        if (!Files.exists(file))
+            return false;
+        ReflectionIndex snapshot;
+        try (InputStream in = Files.newInputStream(file)) {
+            snapshot = ReflectionIndex.read(in);
+        }
+        ReflectionIndex existing = ReflectionIndex.get(classLoader);
+        if (existing != ReflectionIndex.EMPTY)
+            snapshot = ReflectionIndex.builder().addAll(snapshot).addAll(existing).build();
+        ReflectionIndex.register(classLoader, snapshot);
+        return true;
+    }
+}
@@ -0,0 +1,543 @@
+package com.github.ruediste.c3java.index;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.ToLongFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.github.ruediste.c3java.linearization.DefaultDirectSuperclassesInspector;
+import com.github.ruediste.c3java.linearization.JavaC3;
+import com.github.ruediste.c3java.properties.PropertyUtil;
+import com.google.common.collect.MapMaker;
+
+/**
+ * Precomputed reflection metadata, generated at build time to avoid
+ * reflective scanning at startup.
+ *
+ * <p>
+ * The index contains the {@link JavaC3} linearizations (using the
+ * {@link DefaultDirectSuperclassesInspector}) and the property declarations as
+ * returned by {@link PropertyUtil#getPropertyDeclarations(Class)} of the
+ * classes of an application. Classes and members are referenced by name. The
+ * index is stored in the {@link #RESOURCE} resource, which is typically written
+ * by the {@code c3java-index-maven-plugin}.
+ * </p>
+ *
+ * <p>
+ * The indexes are loaded lazily per class loader, when the first linearization
+ * or property declaration of a class of the class loader is missing from the
+ * caches. All {@link #RESOURCE} resources visible to the class loader are
+ * merged. If an index cannot be read, a warning is logged and no index is used
+ * for the class loader. Whenever a class is missing from the index, or the
+ * index does not match the loaded class, the information is computed by
+ * reflection as usual.
+ * Classes of the bootstrap class loader are never looked up in an index.
+ * </p>
+ *
+ * <p>
+ * An index can record a stamp of the class file of each class, see
+ * {@link #classStamp(Class)}. In this case, entries are only used
+ * if the stamps of the class and of all classes in its linearization are
+ * unchanged. The stamps are checked once per class, and the file attributes of
+ * each jar file or directory entry are read once per index. This is used by
+ * {@link CacheSnapshot} to skip stale entries.
+ * </p>
+ *
+ * <p>
+ * Instances are immutable.
+ * </p>
+ */
+public final class ReflectionIndex {
+
+    /**
+     * Name of the resource containing the index
+     */
+    public static final String RESOURCE = "META-INF/c3java/reflection.idx";
+
+    private static final int MAGIC = 0xC3A0_1D58;
+    private static final int VERSION = 1;
+    private static final int NONE = -1;
+
+    /**
+     * stamp of code sources which are directories, the class files are
+     * stamped individually
+     */
+    private static final long DIRECTORY = Long.MIN_VALUE;
+
+    public static final ReflectionIndex EMPTY = new ReflectionIndex(Collections.emptyMap(), Collections.emptyMap(),
+            Collections.emptyMap());
+
+    /**
+     * An indexed property declaration. The setter is identified by its name and
+     * the name of its parameter type.
+     */
+    public static final class PropertyEntry {
+        private final String name;
+        private final String getter;
+        private final String setter;
+        private final String setterParameterType;
+        private final String backingField;
+
+        public PropertyEntry(String name, String getter, String setter, String setterParameterType,
+                String backingField) {
+            this.name = name;
+            this.getter = getter;
+            this.setter = setter;
+            this.setterParameterType = setterParameterType;
+            this.backingField = backingField;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * name of the getter method, or null
+         */
+        public String getGetter() {
+            return getter;
+        }
+
+        /**
+         * name of the setter method, or null
+         */
+        public String getSetter() {
+            return setter;
+        }
+
+        /**
+         * name of the raw parameter type of the setter, or null
+         */
+        public String getSetterParameterType() {
+            return setterParameterType;
+        }
+
+        /**
+         * name of the backing field, or null
+         */
+        public String getBackingField() {
+            return backingField;
+        }
+    }
+
+    private static volatile boolean enabled = true;
+
+    private static final Logger log = Logger.getLogger(ReflectionIndex.class.getName());
+
+    /**
+     * loaded and registered indexes, weakly keyed by class loader
+     */
+    private static final ConcurrentMap<ClassLoader, ReflectionIndex> indexes = new MapMaker().weakKeys().makeMap();
+
+    private final Map<String, List<String>> linearizations;
+    private final Map<String, List<PropertyEntry>> properties;
+    private final Map<String, Long> classStamps;
+
+    /**
+     * result of the stamp checks by class name
+     */
+    private final ConcurrentMap<String, Boolean> currentClasses = new ConcurrentHashMap<>();
+
+    /**
+     * stamps of the jar files classes have been loaded from
+     */
+    private final ConcurrentMap<CodeSource, Long> codeSourceStamps = new ConcurrentHashMap<>();
+
+    private ReflectionIndex(Map<String, List<String>> linearizations, Map<String, List<PropertyEntry>> properties,
+            Map<String, Long> classStamps) {
+        this.linearizations = linearizations;
+        this.properties = properties;
+        this.classStamps = classStamps;
+    }
+
+    /**
+     * Return the names of the classes in the linearization of the given class,
+     * or null if the class is not indexed
+     */
+    public List<String> getLinearization(String className) {
+        return linearizations.get(className);
+    }
+
+    /**
+     * Return the property declarations of the given class, or null if the
+     * class is not indexed
+     */
+    public List<PropertyEntry> getProperties(String className) {
+        return properties.get(className);
+    }
+
+    /**
+     * Return false if a stamp of the class file of the given class is recorded
+     * and does not match the class file the class has been loaded from.
+     */
+    public boolean isCurrent(Class<?> cls) {
+        Long stamp = classStamps.get(cls.getName());
+        if (stamp == null)
+            return true;
+        return currentClasses.computeIfAbsent(cls.getName(), name -> stamp.longValue() == classStamp(cls,
+                codeSource -> codeSourceStamps.computeIfAbsent(codeSource, ReflectionIndex::codeSourceStamp)));
+    }
+
+    /**
+     * Return a stamp of the class file of the given class, or -1 if the class
+     * file is not available. The stamp is computed from the path, size and
+     * modification time of the jar file containing the class, or of the class
+     * file itself if the class has been loaded from a directory. The class
+     * file is not read.
+     */
+    public static long classStamp(Class<?> cls) {
+        return classStamp(cls, ReflectionIndex::codeSourceStamp);
+    }
+
+    private static long classStamp(Class<?> cls, ToLongFunction<CodeSource> codeSourceStamp) {
+        CodeSource codeSource = cls.getProtectionDomain().getCodeSource();
+        if (codeSource == null || codeSource.getLocation() == null)
+            return -1;
+        long stamp = codeSourceStamp.applyAsLong(codeSource);
+        if (stamp != DIRECTORY)
+            return stamp;
+        Path directory = path(codeSource);
+        return directory == null ? -1 : fileStamp(directory.resolve(cls.getName().replace('.', '/') + ".class"));
+    }
+
+    /**
+     * Return the stamp of the jar file of the code source, {@link #DIRECTORY}
+     * if the code source is a directory, or -1 if it is not available from the
+     * file system
+     */
+    private static long codeSourceStamp(CodeSource codeSource) {
+        Path path = path(codeSource);
+        if (path == null)
+            return -1;
+        if (Files.isDirectory(path))
+            return DIRECTORY;
+        return fileStamp(path);
+    }
+
+    private static Path path(CodeSource codeSource) {
+        URL location = codeSource.getLocation();
+        if (!"file".equals(location.getProtocol()))
+            return null;
+        try {
+            return Paths.get(location.toURI());
+        } catch (URISyntaxException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static long fileStamp(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return (31L * file.toString().hashCode() + attributes.size()) * 31
+                    + attributes.lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Return the index for the given class loader. Returns {@link #EMPTY} if
+     * the class loader is the bootstrap class loader, no index is available or
+     * indexes are disabled.
+     */
+    public static ReflectionIndex get(ClassLoader classLoader) {
+        if (!enabled || classLoader == null)
+            return EMPTY;
+        ReflectionIndex index = indexes.get(classLoader);
+        if (index != null)
+            return index;
+        // load each index only once
+        synchronized (indexes) {
+            index = indexes.get(classLoader);
+            if (index == null) {
+                index = load(classLoader);
+                indexes.put(classLoader, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Return the index for the class loader of the given class.
+     *
+     * @see #get(ClassLoader)
+     */
+    public static ReflectionIndex get(Class<?> type) {
+        return get(type.getClassLoader());
+    }
+
+    /**
+     * Use the given index for the given class loader, instead of the index
+     * loaded from the {@link #RESOURCE} resources. Does not affect
+     * linearizations or property declarations which are already cached.
+     */
+    public static void register(ClassLoader classLoader, ReflectionIndex index) {
+        synchronized (indexes) {
+            indexes.put(classLoader, index);
+        }
+    }
+
+    /**
+     * Forget all loaded and registered indexes. They are loaded again when
+     * needed.
+     */
+    public static void reset() {
+        synchronized (indexes) {
+            indexes.clear();
+        }
+    }
+
+    /**
+     * Enable or disable the use of indexes. Enabled by default.
+     */
+    public static void setEnabled(boolean enabled) {
+        ReflectionIndex.enabled = enabled;
+    }
+
+    /**
+     * Load the index of the given class loader. If an index cannot be read,
+     * the failure is logged and {@link #EMPTY} is returned, so the information
+     * is computed by reflection.
+     */
+    private static ReflectionIndex load(ClassLoader classLoader) {
+        Builder builder = new Builder();
+        try {
+            Enumeration<URL> resources = classLoader.getResources(RESOURCE);
+            while (resources.hasMoreElements()) {
+                URL url = resources.nextElement();
+                try (InputStream in = url.openStream()) {
+                    builder.addAll(read(in));
+                } catch (IOException | RuntimeException e) {
+                    throw new IOException("Error while reading " + url, e);
+                }
+            }
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Error while loading " + RESOURCE + " of " + classLoader
+                    + ", falling back to reflection", e);
+            return EMPTY;
+        }
+        return builder.build();
+    }
+
+    /**
+     * Read an index in the binary format
+     */
+    public static ReflectionIndex read(InputStream in) throws IOException {
+        // parse from memory, reading single values through a stream is slow
+        ByteBuffer data = ByteBuffer.wrap(in.readAllBytes());
+        try {
+            if (data.getInt() != MAGIC)
+                throw new IOException("not a reflection index");
+            int version = data.getInt();
+            if (version != VERSION)
+                throw new IOException("unsupported reflection index version " + version);
+
+            String[] names = new String[data.getInt()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = readUTF(data);
+            }
+
+            int count = data.getInt();
+            Map<String, List<String>> linearizations = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                String type = names[data.getInt()];
+                String[] linearization = new String[data.getInt()];
+                for (int p = 0; p < linearization.length; p++) {
+                    linearization[p] = names[data.getInt()];
+                }
+                linearizations.put(type, Collections.unmodifiableList(Arrays.asList(linearization)));
+            }
+
+            count = data.getInt();
+            Map<String, List<PropertyEntry>> properties = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                String type = names[data.getInt()];
+                PropertyEntry[] entries = new PropertyEntry[data.getInt()];
+                for (int p = 0; p < entries.length; p++) {
+                    entries[p] = new PropertyEntry(names[data.getInt()], readName(data, names),
+                            readName(data, names), readName(data, names), readName(data, names));
+                }
+                properties.put(type, Collections.unmodifiableList(Arrays.asList(entries)));
+            }
+
+            count = data.getInt();
+            Map<String, Long> classStamps = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                classStamps.put(names[data.getInt()], data.getLong());
+            }
+            return new ReflectionIndex(linearizations, properties, classStamps);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("truncated or corrupt reflection index", e);
+        }
+    }
+
+    private static String readName(ByteBuffer data, String[] names) {
+        int index = data.getInt();
+        return index == NONE ? null : names[index];
+    }
+
+    /**
+     * Read a string written by {@link DataOutputStream#writeUTF(String)}
+     */
+    private static String readUTF(ByteBuffer data) throws IOException {
+        int length = Short.toUnsignedInt(data.getShort());
+        int start = data.position();
+        byte[] array = data.array();
+        for (int i = start; i < start + length; i++) {
+            if (array[i] < 0) {
+                // non ASCII characters, decode the modified UTF-8
+                String result = new DataInputStream(new ByteArrayInputStream(array, start - 2, length + 2))
+                        .readUTF();
+                data.position(start + length);
+                return result;
+            }
+        }
+        data.position(start + length);
+        return new String(array, start, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Write the index in the binary format. All names are stored once in a
+     * string table and referenced by their position.
+     */
+    public void write(OutputStream out) throws IOException {
+        Map<String, Integer> names = new LinkedHashMap<>();
+        linearizations.forEach((type, linearization) -> {
+            addName(names, type);
+            linearization.forEach(x -> addName(names, x));
+        });
+        properties.forEach((type, entries) -> {
+            addName(names, type);
+            for (PropertyEntry entry : entries) {
+                addName(names, entry.name);
+                addName(names, entry.getter);
+                addName(names, entry.setter);
+                addName(names, entry.setterParameterType);
+                addName(names, entry.backingField);
+            }
+        });
+        classStamps.keySet().forEach(x -> addName(names, x));
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(names.size());
+        for (String name : names.keySet()) {
+            data.writeUTF(name);
+        }
+
+        data.writeInt(linearizations.size());
+        for (Map.Entry<String, List<String>> e : linearizations.entrySet()) {
+            data.writeInt(names.get(e.getKey()));
+            data.writeInt(e.getValue().size());
+            for (String name : e.getValue()) {
+                data.writeInt(names.get(name));
+            }
+        }
+
+        data.writeInt(properties.size());
+        for (Map.Entry<String, List<PropertyEntry>> e : properties.entrySet()) {
+            data.writeInt(names.get(e.getKey()));
+            data.writeInt(e.getValue().size());
+            for (PropertyEntry entry : e.getValue()) {
+                data.writeInt(names.get(entry.name));
+                writeName(data, names, entry.getter);
+                writeName(data, names, entry.setter);
+                writeName(data, names, entry.setterParameterType);
+                writeName(data, names, entry.backingField);
+            }
+        }
+
+        data.writeInt(classStamps.size());
+        for (Map.Entry<String, Long> e : classStamps.entrySet()) {
+            data.writeInt(names.get(e.getKey()));
+            data.writeLong(e.getValue());
+        }
+        data.flush();
+    }
+
+    private static void addName(Map<String, Integer> names, String name) {
+        if (name != null && !names.containsKey(name))
+            names.put(name, names.size());
+    }
+
+    private static void writeName(DataOutputStream data, Map<String, Integer> names, String name)
+            throws IOException {
+        data.writeInt(name == null ? NONE : names.get(name));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private final Map<String, List<String>> linearizations = new LinkedHashMap<>();
+        private final Map<String, List<PropertyEntry>> properties = new LinkedHashMap<>();
+        private final Map<String, Long> classStamps = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder linearization(String className, List<String> linearization) {
+            linearizations.put(className, Collections.unmodifiableList(new ArrayList<>(linearization)));
+            return this;
+        }
+
+        public Builder properties(String className, List<PropertyEntry> entries) {
+            properties.put(className, Collections.unmodifiableList(new ArrayList<>(entries)));
+            return this;
+        }
+
+        /**
+         * Record the stamp of the class file of the given class
+         *
+         * @see ReflectionIndex#classStamp(Class)
+         */
+        public Builder classStamp(String className, long stamp) {
+            classStamps.put(className, stamp);
+            return this;
+        }
+
+        /**
+         * Add all entries of the given index. Existing entries are retained.
+         */
+        public Builder addAll(ReflectionIndex index) {
+            index.linearizations.forEach(linearizations::putIfAbsent);
+            index.properties.forEach(properties::putIfAbsent);
+            index.classStamps.forEach(classStamps::putIfAbsent);
+            return this;
+        }
+
+        public ReflectionIndex build() {
+            if (linearizations.isEmpty() && properties.isEmpty())
+                return EMPTY;
+            return new ReflectionIndex(new LinkedHashMap<>(linearizations), new LinkedHashMap<>(properties),
+                    new LinkedHashMap<>(classStamps));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.ruediste.c3java.index;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import com.github.ruediste.c3java.index.ReflectionIndex.PropertyEntry;
+import com.github.ruediste.c3java.linearization.JavaC3;
+import com.github.ruediste.c3java.linearization.Linearization;
+import com.github.ruediste.c3java.properties.PropertyDeclaration;
+import com.github.ruediste.c3java.properties.PropertyUtil;
+
+/**
+ * Creates a {@link ReflectionIndex} for a set of classes. Used at build time.
+ *
+ * <p>
+ * The classes should be loaded by a class loader which does not see an
+ * outdated {@link ReflectionIndex#RESOURCE}, otherwise the outdated information
+ * is copied to the new index.
+ * </p>
+ */
+public class ReflectionIndexGenerator {
+
+    private final ReflectionIndex.Builder builder = ReflectionIndex.builder();
+
+    private final boolean recordClassStamps;
+
+    private final Set<String> stampedClasses = new HashSet<>();
+
+    public ReflectionIndexGenerator() {
+        this(false);
+    }
+
+    /**
+     * @param recordClassStamps
+     *            if true, the stamps of the class files of the added classes
+     *            and of the classes in their linearizations are recorded
+     */
+    public ReflectionIndexGenerator(boolean recordClassStamps) {
+        this.recordClassStamps = recordClassStamps;
+    }
+
+    /**
+     * Add the linearization and the property declarations of the given class.
+     * Classes which cannot be linearized are skipped.
+     */
+    public ReflectionIndexGenerator add(Class<?> type) {
+        Optional<Linearization> linearization = JavaC3.tryAllSuperclasses(type);
+        if (linearization.isPresent()) {
+            List<String> names = new ArrayList<>();
+            for (Class<?> cls : linearization.get()) {
+                names.add(cls.getName());
+                recordClassStamp(cls);
+            }
+            builder.linearization(type.getName(), names);
+        }
+
+        List<PropertyEntry> entries = new ArrayList<>();
+        for (PropertyDeclaration declaration : PropertyUtil.getPropertyDeclarations(type).values()) {
+            entries.add(new PropertyEntry(declaration.getName(),
+                    declaration.getGetter() == null ? null : declaration.getGetter().getName(),
+                    declaration.getSetter() == null ? null : declaration.getSetter().getName(),
+                    declaration.getSetter() == null ? null : declaration.getSetter().getParameterTypes()[0].getName(),
+                    declaration.getBackingField() == null ? null : declaration.getBackingField().getName()));
+        }
+        builder.properties(type.getName(), entries);
+        recordClassStamp(type);
+        return this;
+    }
+
+    private void recordClassStamp(Class<?> cls) {
+        if (!recordClassStamps || !stampedClasses.add(cls.getName()))
+            return;
+        long stamp = ReflectionIndex.classStamp(cls);
+        if (stamp != -1)
+            builder.classStamp(cls.getName(), stamp);
+    }
+
+    public ReflectionIndex build() {
+        return builder.build();
+    }
+}
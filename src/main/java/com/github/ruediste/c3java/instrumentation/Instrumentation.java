@@ -0,0 +1,63 @@
+package com.github.ruediste.c3java.instrumentation;
+
+import com.github.ruediste.c3java.cache.ClassCaches;
+import com.github.ruediste.c3java.invocationRecording.MethodInvocationRecorder;
+import com.github.ruediste.c3java.linearization.JavaC3;
+import com.github.ruediste.c3java.properties.PropertyUtil;
+
+/**
+ * Receives events about the caches and the expensive operations of c3java.
+ * Install an implementation using {@link Instrumentations#set(Instrumentation)}.
+ *
+ * <p>
+ * All methods do nothing by default. They are called synchronously from the
+ * instrumented code, possibly from many threads concurrently, so they should
+ * be cheap and thread safe.
+ * </p>
+ */
+public interface Instrumentation {
+
+    /**
+     * Name of the cache of the {@link JavaC3} class linearizations
+     */
+    String LINEARIZATION_CACHE = "linearization";
+
+    /**
+     * A value was found in a cache. Besides {@link #LINEARIZATION_CACHE}, the
+     * cache names are the names of the caches created by
+     * {@link ClassCaches#create(String)}, such as the
+     * {@code propertyInfoMap} and {@code propertyIntroductionMap} caches of
+     * {@link PropertyUtil}.
+     */
+    default void cacheHit(String cache) {
+    }
+
+    /**
+     * A value was missing in a cache and has been computed
+     *
+     * @see #cacheHit(String)
+     */
+    default void cacheMiss(String cache) {
+    }
+
+    /**
+     * The linearization of a class has been computed by merging the
+     * linearizations of its direct superclasses
+     */
+    default void linearizationComputed(Class<?> type, long nanos) {
+    }
+
+    /**
+     * The declared members of a class have been scanned for property
+     * declarations
+     */
+    default void propertyDeclarationsScanned(Class<?> type, long nanos) {
+    }
+
+    /**
+     * {@link MethodInvocationRecorder} created a proxy of a class which has
+     * not been proxied before
+     */
+    default void proxyClassCreated(Class<?> proxyClass) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.ruediste.c3java.instrumentation;
+
+/**
+ * Holds the installed {@link Instrumentation}.
+ */
+public final class Instrumentations {
+
+    private Instrumentations() {
+    }
+
+    /**
+     * Instrumentation ignoring all events, installed by default
+     */
+    public static final Instrumentation NOOP = new Instrumentation() {
+    };
+
+    private static volatile Instrumentation instrumentation = NOOP;
+
+    /**
+     * Return the installed instrumentation. Instrumented code compares the
+     * result with {@link #NOOP} to skip measurements if nothing is installed.
+     */
+    public static Instrumentation get() {
+        return instrumentation;
+    }
+
+    /**
+     * Install the given instrumentation, replacing the current one
+     */
+    public static void set(Instrumentation instrumentation) {
+        Instrumentations.instrumentation = instrumentation == null ? NOOP : instrumentation;
+    }
+
+    /**
+     * Install the {@link #NOOP} instrumentation
+     */
+    public static void reset() {
+        set(NOOP);
+    }
+}
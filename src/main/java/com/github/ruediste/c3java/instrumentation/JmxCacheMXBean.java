@@ -0,0 +1,12 @@
+package com.github.ruediste.c3java.instrumentation;
+
+/**
+ * Attributes of the MBeans registered by {@link JmxInstrumentation} for each
+ * cache
+ */
+public interface JmxCacheMXBean {
+
+    long getHitCount();
+
+    long getMissCount();
+}
@@ -0,0 +1,192 @@
+package com.github.ruediste.c3java.instrumentation;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * {@link Instrumentation} counting the events and publishing the counters as
+ * MBeans.
+ *
+ * <p>
+ * The timers and the proxy class count are published by the
+ * {@code com.github.ruediste.c3java:type=Instrumentation} MBean. For each
+ * cache, a {@code com.github.ruediste.c3java:type=Cache,name=<cache name>}
+ * MBean is registered when the cache is used for the first time.
+ * </p>
+ *
+ * <p>
+ * Failures to register or unregister an MBean, for example because another
+ * copy of c3java in the same JVM already registered the same name, are logged
+ * and otherwise ignored. The counters keep working, they are just not
+ * published.
+ * </p>
+ *
+ * <p>
+ * Typical usage: {@code JmxInstrumentation.install()} on startup.
+ * </p>
+ */
+public class JmxInstrumentation implements Instrumentation, JmxInstrumentationMXBean {
+
+    private static final Logger log = Logger.getLogger(JmxInstrumentation.class.getName());
+
+    public static final String DOMAIN = "com.github.ruediste.c3java";
+
+    private final MBeanServer server;
+
+    private final LongAdder linearizationCount = new LongAdder();
+    private final LongAdder linearizationTime = new LongAdder();
+    private final LongAdder propertyDeclarationScanCount = new LongAdder();
+    private final LongAdder propertyDeclarationScanTime = new LongAdder();
+    private final LongAdder proxyClassCount = new LongAdder();
+
+    private final ConcurrentMap<String, CacheCounters> caches = new ConcurrentHashMap<>();
+
+    private final List<ObjectName> registeredNames = new ArrayList<>();
+
+    private static class CacheCounters implements JmxCacheMXBean {
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+
+        @Override
+        public long getHitCount() {
+            return hits.sum();
+        }
+
+        @Override
+        public long getMissCount() {
+            return misses.sum();
+        }
+    }
+
+    public JmxInstrumentation(MBeanServer server) {
+        this.server = server;
+    }
+
+    /**
+     * Create a {@link JmxInstrumentation} publishing to the platform MBean
+     * server and install it.
+     */
+    public static JmxInstrumentation install() {
+        JmxInstrumentation instrumentation = new JmxInstrumentation(ManagementFactory.getPlatformMBeanServer());
+        instrumentation.register();
+        Instrumentations.set(instrumentation);
+        return instrumentation;
+    }
+
+    /**
+     * Register the instrumentation MBean
+     */
+    public void register() {
+        register(this, "type=Instrumentation");
+    }
+
+    /**
+     * Uninstall this instrumentation if it is installed, and unregister all
+     * MBeans
+     */
+    public void uninstall() {
+        if (Instrumentations.get() == this)
+            Instrumentations.reset();
+        synchronized (registeredNames) {
+            for (ObjectName name : registeredNames) {
+                try {
+                    server.unregisterMBean(name);
+                } catch (JMException | RuntimeException e) {
+                    log.log(Level.WARNING, "Error while unregistering MBean " + name, e);
+                }
+            }
+            registeredNames.clear();
+        }
+    }
+
+    /**
+     * Register an MBean. Never throws, since this is called from the
+     * instrumented code.
+     */
+    private void register(Object mbean, String properties) {
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":" + properties);
+            synchronized (registeredNames) {
+                server.registerMBean(mbean, name);
+                registeredNames.add(name);
+            }
+        } catch (JMException | RuntimeException e) {
+            log.log(Level.WARNING, "Error while registering MBean " + DOMAIN + ":" + properties, e);
+        }
+    }
+
+    private CacheCounters cache(String cache) {
+        CacheCounters counters = caches.get(cache);
+        if (counters == null) {
+            CacheCounters newCounters = new CacheCounters();
+            counters = caches.putIfAbsent(cache, newCounters);
+            if (counters == null) {
+                counters = newCounters;
+                register(counters, "type=Cache,name=" + ObjectName.quote(cache));
+            }
+        }
+        return counters;
+    }
+
+    @Override
+    public void cacheHit(String cache) {
+        cache(cache).hits.increment();
+    }
+
+    @Override
+    public void cacheMiss(String cache) {
+        cache(cache).misses.increment();
+    }
+
+    @Override
+    public void linearizationComputed(Class<?> type, long nanos) {
+        linearizationCount.increment();
+        linearizationTime.add(nanos);
+    }
+
+    @Override
+    public void propertyDeclarationsScanned(Class<?> type, long nanos) {
+        propertyDeclarationScanCount.increment();
+        propertyDeclarationScanTime.add(nanos);
+    }
+
+    @Override
+    public void proxyClassCreated(Class<?> proxyClass) {
+        proxyClassCount.increment();
+    }
+
+    @Override
+    public long getLinearizationCount() {
+        return linearizationCount.sum();
+    }
+
+    @Override
+    public long getLinearizationTimeNanos() {
+        return linearizationTime.sum();
+    }
+
+    @Override
+    public long getPropertyDeclarationScanCount() {
+        return propertyDeclarationScanCount.sum();
+    }
+
+    @Override
+    public long getPropertyDeclarationScanTimeNanos() {
+        return propertyDeclarationScanTime.sum();
+    }
+
+    @Override
+    public long getProxyClassCount() {
+        return proxyClassCount.sum();
+    }
+}
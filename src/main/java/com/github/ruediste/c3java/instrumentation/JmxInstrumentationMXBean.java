@@ -0,0 +1,17 @@
+package com.github.ruediste.c3java.instrumentation;
+
+/**
+ * Attributes of the MBean registered by {@link JmxInstrumentation}
+ */
+public interface JmxInstrumentationMXBean {
+
+    long getLinearizationCount();
+
+    long getLinearizationTimeNanos();
+
+    long getPropertyDeclarationScanCount();
+
+    long getPropertyDeclarationScanTimeNanos();
+
+    long getProxyClassCount();
+}
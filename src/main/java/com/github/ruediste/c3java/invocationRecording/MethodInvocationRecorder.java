@@ -9,8 +9,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
+import com.github.ruediste.c3java.instrumentation.Instrumentation;
+import com.github.ruediste.c3java.instrumentation.Instrumentations;
+import com.github.ruediste.c3java.jfr.JfrEvents;
 import com.google.common.base.Defaults;
 import com.google.common.collect.Iterables;
 import com.google.common.primitives.Primitives;
@@ -47,6 +51,17 @@ public class MethodInvocationRecorder {
 
     private final ArrayList<MethodInvocation<Object>> invocations = new ArrayList<>();
 
+    /**
+     * Flags the proxy classes which have already been reported to the
+     * {@link Instrumentation}
+     */
+    private static final ClassValue<AtomicBoolean> proxyClasses = new ClassValue<AtomicBoolean>() {
+        @Override
+        protected AtomicBoolean computeValue(Class<?> type) {
+            return new AtomicBoolean();
+        }
+    };
+
     public <T> T getProxy(Class<T> type) {
         return getProxy(TypeToken.of(type));
     }
@@ -90,7 +105,14 @@ public class MethodInvocationRecorder {
         } });
 
         try {
-            return (T) e.create();
+            Object event = JfrEvents.beginProxyCreation();
+            T proxy = (T) e.create();
+            // the first creation of a proxy of a class is the one generating it
+            boolean generated = proxyClasses.get(proxy.getClass()).compareAndSet(false, true);
+            if (generated)
+                Instrumentations.get().proxyClassCreated(proxy.getClass());
+            JfrEvents.commit(event, type.getRawType(), !generated);
+            return proxy;
         } catch (Exception ex) {
             throw new RuntimeException("Error while creating proxy of " + type, ex);
         }
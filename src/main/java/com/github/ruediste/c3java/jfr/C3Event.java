@@ -0,0 +1,19 @@
+package com.github.ruediste.c3java.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base class of the Java Flight Recorder events of c3java. The duration of the
+ * event is the duration of the operation.
+ */
+@Category("c3java")
+abstract class C3Event extends Event {
+
+    @Label("Class")
+    String className;
+
+    @Label("Cache Hit")
+    boolean cacheHit;
+}
@@ -0,0 +1,127 @@
+package com.github.ruediste.c3java.jfr;
+
+import java.lang.reflect.Method;
+
+import jdk.jfr.EventType;
+
+/**
+ * Emits the Java Flight Recorder events of c3java.
+ *
+ * <p>
+ * The instrumented code calls one of the {@code begin} methods before an
+ * operation and passes the result to {@link #commit(Object, Class, boolean)}
+ * afterwards. If the event is not enabled in any recording, or Flight Recorder
+ * is not available in the running JVM, the {@code begin} methods return null
+ * without allocating and the instrumented code skips any additional work.
+ * </p>
+ *
+ * <p>
+ * Only the nested {@link Recorder} references the event classes. It is loaded
+ * after probing for {@code jdk.jfr.Event}, so this class can be used on JVMs
+ * without the {@code jdk.jfr} module.
+ * </p>
+ *
+ * <p>
+ * The linearization and property info map events have a default threshold of
+ * 1 us, which filters out regular cache hits. Lower the threshold in the
+ * recording settings to record them.
+ * </p>
+ */
+public final class JfrEvents {
+
+    private JfrEvents() {
+    }
+
+    private static final JfrSupport SUPPORT = createSupport();
+
+    private static JfrSupport createSupport() {
+        try {
+            Class.forName("jdk.jfr.Event");
+        } catch (ClassNotFoundException | LinkageError e) {
+            return JfrSupport.NOOP;
+        }
+        try {
+            return new Recorder();
+        } catch (LinkageError e) {
+            return JfrSupport.NOOP;
+        }
+    }
+
+    /**
+     * Accesses the event classes. Only loaded if Flight Recorder is available.
+     */
+    private static class Recorder implements JfrSupport {
+        private final EventType linearization = EventType.getEventType(LinearizationEvent.class);
+        private final EventType propertyInfoMap = EventType.getEventType(PropertyInfoMapEvent.class);
+        private final EventType methodDeclarations = EventType.getEventType(MethodDeclarationsEvent.class);
+        private final EventType proxyCreation = EventType.getEventType(ProxyCreationEvent.class);
+
+        private static Object begin(C3Event event) {
+            event.begin();
+            return event;
+        }
+
+        @Override
+        public Object beginLinearization() {
+            return linearization.isEnabled() ? begin(new LinearizationEvent()) : null;
+        }
+
+        @Override
+        public Object beginPropertyInfoMap() {
+            return propertyInfoMap.isEnabled() ? begin(new PropertyInfoMapEvent()) : null;
+        }
+
+        @Override
+        public Object beginMethodDeclarations(Method method) {
+            if (!methodDeclarations.isEnabled())
+                return null;
+            MethodDeclarationsEvent event = new MethodDeclarationsEvent();
+            event.methodName = method.getName();
+            return begin(event);
+        }
+
+        @Override
+        public Object beginProxyCreation() {
+            return proxyCreation.isEnabled() ? begin(new ProxyCreationEvent()) : null;
+        }
+
+        @Override
+        public void commit(Object event, Class<?> type, boolean cacheHit) {
+            C3Event c3Event = (C3Event) event;
+            c3Event.end();
+            if (c3Event.shouldCommit()) {
+                c3Event.className = type.getName();
+                c3Event.cacheHit = cacheHit;
+                c3Event.commit();
+            }
+        }
+    }
+
+    public static Object beginLinearization() {
+        return SUPPORT.beginLinearization();
+    }
+
+    public static Object beginPropertyInfoMap() {
+        return SUPPORT.beginPropertyInfoMap();
+    }
+
+    /**
+     * Begin a method declarations event for the given method
+     */
+    public static Object beginMethodDeclarations(Method method) {
+        return SUPPORT.beginMethodDeclarations(method);
+    }
+
+    public static Object beginProxyCreation() {
+        return SUPPORT.beginProxyCreation();
+    }
+
+    /**
+     * Commit an event returned by one of the {@code begin} methods. Does
+     * nothing if the event is null.
+     */
+    public static void commit(Object event, Class<?> type, boolean cacheHit) {
+        if (event != null)
+            SUPPORT.commit(event, type, cacheHit);
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.ruediste.c3java.jfr;
+
+import java.lang.reflect.Method;
+
+/**
+ * Backend of {@link JfrEvents}. The implementation referencing the event
+ * classes is only loaded if Flight Recorder is available, {@link #NOOP} is
+ * used otherwise.
+ */
+interface JfrSupport {
+
+    Object beginLinearization();
+
+    Object beginPropertyInfoMap();
+
+    Object beginMethodDeclarations(Method method);
+
+    Object beginProxyCreation();
+
+    void commit(Object event, Class<?> type, boolean cacheHit);
+
+    /**
+     * Implementation used if Flight Recorder is not available
+     */
+    JfrSupport NOOP = new JfrSupport() {
+
+        @Override
+        public Object beginLinearization() {
+            return null;
+        }
+
+        @Override
+        public Object beginPropertyInfoMap() {
+            return null;
+        }
+
+        @Override
+        public Object beginMethodDeclarations(Method method) {
+            return null;
+        }
+
+        @Override
+        public Object beginProxyCreation() {
+            return null;
+        }
+
+        @Override
+        public void commit(Object event, Class<?> type, boolean cacheHit) {
+        }
+    };
+}
@@ -0,0 +1,13 @@
+package com.github.ruediste.c3java.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("com.github.ruediste.c3java.Linearization")
+@Label("Linearization")
+@Description("Lookup of the linearization of a class, computing it if it is not cached")
+@Threshold("1 us")
+class LinearizationEvent extends C3Event {
+}
@@ -0,0 +1,14 @@
+package com.github.ruediste.c3java.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.github.ruediste.c3java.MethodDeclarations")
+@Label("Method Declarations")
+@Description("Lookup of the declarations overridden by a method. These lookups are not cached.")
+class MethodDeclarationsEvent extends C3Event {
+
+    @Label("Method")
+    String methodName;
+}
@@ -0,0 +1,13 @@
+package com.github.ruediste.c3java.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("com.github.ruediste.c3java.PropertyInfoMap")
+@Label("Property Info Map")
+@Description("Lookup of the property info map of a class, calculating it if it is not cached")
+@Threshold("1 us")
+class PropertyInfoMapEvent extends C3Event {
+}
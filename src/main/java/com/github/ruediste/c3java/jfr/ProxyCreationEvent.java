@@ -0,0 +1,11 @@
+package com.github.ruediste.c3java.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.github.ruediste.c3java.ProxyCreation")
+@Label("Proxy Creation")
+@Description("Creation of a recording proxy. Cache Hit is set if the proxy class had been generated before.")
+class ProxyCreationEvent extends C3Event {
+}
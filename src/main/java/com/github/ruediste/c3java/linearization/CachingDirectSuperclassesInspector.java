@@ -0,0 +1,71 @@
+package com.github.ruediste.c3java.linearization;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Decorator of a {@link DirectSuperclassesInspector} caching the direct parent
+ * classes of each type.
+ * 
+ * <p>
+ * The parent classes are copied once into an immutable list, which is attached
+ * to the type using a {@link ClassValue}. Repeated calls return the shared list
+ * without allocating, and the cached list lives exactly as long as the type.
+ * The delegate has to return the same parents for a type each time it is
+ * called.
+ * </p>
+ */
+public class CachingDirectSuperclassesInspector implements DirectSuperclassesInspector {
+
+    private final DirectSuperclassesInspector delegate;
+
+    private final ClassValue<List<Class<?>>> parents = new ClassValue<List<Class<?>>>() {
+        @Override
+        protected List<Class<?>> computeValue(Class<?> type) {
+            return ImmutableList.copyOf(delegate.directParentClasses(type));
+        }
+    };
+
+    public CachingDirectSuperclassesInspector(DirectSuperclassesInspector delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Return a caching version of the given inspector. If the inspector is
+     * already caching, it is returned unchanged.
+     */
+    public static CachingDirectSuperclassesInspector of(DirectSuperclassesInspector delegate) {
+        if (delegate instanceof CachingDirectSuperclassesInspector)
+            return (CachingDirectSuperclassesInspector) delegate;
+        return new CachingDirectSuperclassesInspector(delegate);
+    }
+
+    @Override
+    public List<Class<?>> directParentClasses(Class<?> type) {
+        return parents.get(type);
+    }
+
+    public DirectSuperclassesInspector getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null || getClass() != obj.getClass())
+            return false;
+        return delegate.equals(((CachingDirectSuperclassesInspector) obj).delegate);
+    }
+
+    @Override
+    public String toString() {
+        return "Caching(" + delegate + ")";
+    }
+}
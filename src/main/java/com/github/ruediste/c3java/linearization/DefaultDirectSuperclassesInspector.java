@@ -8,10 +8,9 @@ import java.lang.reflect.Array;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.google.common.collect.ImmutableList;
 
@@ -116,8 +115,7 @@ public class DefaultDirectSuperclassesInspector implements DirectSuperclassesIns
         } else {
             List<Class<?>> componentSuperclasses = parentTypeReader.directParentClasses(c);
             if (componentSuperclasses.isEmpty() && !c.isInterface()) {
-                classes = (level == 1) ? new LinkedList<Class<?>>(ARRAY_SUPERCLASSES)
-                        : makeArrayClasses(ARRAY_SUPERCLASSES, level - 1);
+                classes = (level == 1) ? ARRAY_SUPERCLASSES : makeArrayClasses(ARRAY_SUPERCLASSES, level - 1);
             } else {
                 classes = makeArrayClasses(componentSuperclasses, level);
             }
@@ -128,16 +126,42 @@ public class DefaultDirectSuperclassesInspector implements DirectSuperclassesIns
 
     // this compensates for the lack of map
     public static List<Class<?>> makeArrayClasses(List<Class<?>> classes, int dims) {
-        Iterator<Class<?>> i = classes.iterator();
-        LinkedList<Class<?>> arrayClasses = new LinkedList<Class<?>>();
-        while (i.hasNext())
-            arrayClasses.add(makeArrayClass(i.next(), dims));
-        return arrayClasses;
+        Class<?>[] arrayClasses = new Class<?>[classes.size()];
+        for (int i = 0; i < arrayClasses.length; i++)
+            arrayClasses[i] = makeArrayClass(classes.get(i), dims);
+        return ImmutableList.copyOf(arrayClasses);
     }
 
-    /* copied from sisc 1.8.5 s2j/Utils.java */
+    /**
+     * The array classes of a component type, indexed by the number of
+     * dimensions. Grown on demand.
+     */
+    private static final ClassValue<AtomicReference<Class<?>[]>> ARRAY_CLASSES = new ClassValue<AtomicReference<Class<?>[]>>() {
+        @Override
+        protected AtomicReference<Class<?>[]> computeValue(Class<?> type) {
+            return new AtomicReference<Class<?>[]>(new Class<?>[] { type });
+        }
+    };
+
+    /**
+     * Return the array class with the given component type and number of
+     * dimensions. The classes are cached per component type, so no array
+     * instance is created once a class has been looked up.
+     */
     public static Class<?> makeArrayClass(Class<?> c, int dims) {
-        return Array.newInstance(c, new int[dims]).getClass();
+        if (dims < 1)
+            throw new IllegalArgumentException("Array dimensions must be positive, was " + dims);
+        AtomicReference<Class<?>[]> ref = ARRAY_CLASSES.get(c);
+        Class<?>[] arrayClasses = ref.get();
+        while (arrayClasses.length <= dims) {
+            Class<?>[] grown = Arrays.copyOf(arrayClasses, dims + 1);
+            for (int i = arrayClasses.length; i <= dims; i++)
+                grown[i] = Array.newInstance(grown[i - 1], 0).getClass();
+            // if another thread grew the array concurrently, use its result
+            ref.compareAndSet(arrayClasses, grown);
+            arrayClasses = ref.get();
+        }
+        return arrayClasses[dims];
     }
 
 }
@@ -0,0 +1,121 @@
+package com.github.ruediste.c3java.linearization;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+import com.google.common.reflect.TypeToken;
+
+/**
+ * The linearization of a generic type, as returned by
+ * {@link JavaC3#allSupertypes(TypeToken)}.
+ *
+ * <p>
+ * The order of the supertypes is given by the {@link Linearization} of the raw
+ * type, which is shared. Each supertype is resolved against the linearized
+ * type. For example the linearization of {@code ArrayList<String>} contains
+ * {@code List<String>} and {@code Collection<String>}. Supertypes without type
+ * parameters are represented by their raw class. Instances are immutable.
+ * </p>
+ */
+public final class GenericLinearization extends AbstractList<TypeToken<?>> implements RandomAccess {
+
+    private final TypeToken<?> type;
+    private final Linearization rawLinearization;
+    private final TypeToken<?>[] supertypes;
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    GenericLinearization(TypeToken<?> type, Linearization rawLinearization) {
+        this.type = type;
+        this.rawLinearization = rawLinearization;
+        supertypes = new TypeToken<?>[rawLinearization.size()];
+        Class<?> rawType = type.getRawType();
+        for (int i = 0; i < supertypes.length; i++) {
+            Class<?> cls = rawLinearization.get(i);
+            if (i == 0)
+                supertypes[i] = type;
+            else if (cls.getTypeParameters().length > 0 && cls.isAssignableFrom(rawType))
+                supertypes[i] = ((TypeToken) type).getSupertype(cls);
+            else
+                supertypes[i] = TypeToken.of(cls);
+        }
+    }
+
+    /**
+     * The linearized type
+     */
+    public TypeToken<?> getType() {
+        return type;
+    }
+
+    /**
+     * The linearization of the raw type, containing the raw types of the
+     * supertypes in the same order
+     */
+    public Linearization getRawLinearization() {
+        return rawLinearization;
+    }
+
+    @Override
+    public TypeToken<?> get(int index) {
+        return supertypes[index];
+    }
+
+    @Override
+    public int size() {
+        return supertypes.length;
+    }
+
+    /**
+     * Return the resolved supertype with the given raw type, or null if the raw
+     * type is not part of this linearization.
+     */
+    public TypeToken<?> getSupertype(Class<?> rawType) {
+        int index = rawLinearization.indexOf(rawType);
+        return index < 0 ? null : supertypes[index];
+    }
+
+    /**
+     * Return true if any class in the raw linearization or any class
+     * referenced by the type arguments of the linearized type matches the
+     * predicate.
+     */
+    boolean references(Predicate<Class<?>> predicate) {
+        for (Class<?> cls : rawLinearization) {
+            if (predicate.test(cls))
+                return true;
+        }
+        return references(type.getType(), predicate);
+    }
+
+    private static boolean references(Type type, Predicate<Class<?>> predicate) {
+        if (type instanceof Class) {
+            return predicate.test((Class<?>) type);
+        } else if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) type;
+            if (references(parameterizedType.getRawType(), predicate))
+                return true;
+            for (Type argument : parameterizedType.getActualTypeArguments()) {
+                if (references(argument, predicate))
+                    return true;
+            }
+        } else if (type instanceof GenericArrayType) {
+            return references(((GenericArrayType) type).getGenericComponentType(), predicate);
+        } else if (type instanceof WildcardType) {
+            WildcardType wildcardType = (WildcardType) type;
+            for (Type bound : wildcardType.getUpperBounds()) {
+                if (references(bound, predicate))
+                    return true;
+            }
+            for (Type bound : wildcardType.getLowerBounds()) {
+                if (references(bound, predicate))
+                    return true;
+            }
+        }
+        return false;
+    }
+}
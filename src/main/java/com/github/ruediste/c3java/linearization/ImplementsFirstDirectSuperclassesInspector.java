@@ -1,9 +1,9 @@
 package com.github.ruediste.c3java.linearization;
 
-import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
 
+import com.google.common.collect.ImmutableList;
+
 /**
  * Implementation of {@link DirectSuperclassesInspector} with 'implements'
  * before 'extends'. Although this appears to make more sense than the default,
@@ -26,8 +26,8 @@ public class ImplementsFirstDirectSuperclassesInspector implements DirectSupercl
             Class<?>[] interfaces = c.getInterfaces();
             Class<?> superclass = c.getSuperclass();
 
-            List<Class<?>> classes = new LinkedList<Class<?>>();
-            classes.addAll(Arrays.asList(interfaces));
+            ImmutableList.Builder<Class<?>> classes = ImmutableList.builder();
+            classes.add(interfaces);
             if (superclass == null) {
                 if (interfaces.length == 0 && c != Object.class)
                     classes.add(Object.class);
@@ -35,7 +35,7 @@ public class ImplementsFirstDirectSuperclassesInspector implements DirectSupercl
                 classes.add(superclass);
             }
 
-            return classes;
+            return classes.build();
         }
     }
 }
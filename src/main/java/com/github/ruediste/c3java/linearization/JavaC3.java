@@ -1,28 +1,28 @@
 package com.github.ruediste.c3java.linearization;
 
-import static com.google.common.base.Predicates.equalTo;
-import static com.google.common.base.Predicates.not;
-import static com.google.common.collect.Iterables.all;
-import static com.google.common.collect.Iterables.any;
-import static com.google.common.collect.Iterables.concat;
-import static com.google.common.collect.Lists.newArrayList;
-import static java.util.Collections.singletonList;
-
 import java.text.MessageFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import com.google.common.base.Function;
 import com.google.common.base.Joiner;
-import com.google.common.base.Objects;
-import com.google.common.base.Optional;
-import com.google.common.base.Predicate;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.reflect.TypeToken;
 
 /**
  * Implement C3 Linearization
@@ -33,40 +33,23 @@ import com.google.common.collect.Lists;
  * @author david
  */
 public class JavaC3 {
-    private static class LinearizationKey {
-        public DirectSuperclassesInspector directParentClassesReader;
-        public Class<?> type;
-
-        public LinearizationKey(DirectSuperclassesInspector directParentClassesReader, Class<?> type) {
-            this.directParentClassesReader = directParentClassesReader;
-            this.type = type;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (o == null) {
-                // you wouldn't think this could happen, but there
-                // is no way to stop garbage collection from happening
-                // on linearizations during a get(), or put(), so we
-                // must check this is not null.
-                return false;
-            } else {
-                LinearizationKey other = (LinearizationKey) o;
-                return type.equals(other.type) && directParentClassesReader.equals(other.directParentClassesReader);
-            }
-        }
+    private static final ConcurrentMap<DirectSuperclassesInspector, LinearizationCache> linearizations = new ConcurrentHashMap<>();
 
-        @Override
-        public int hashCode() {
-            return Objects.hashCode(type, directParentClassesReader);
-        }
-    }
+    private static volatile boolean captureFailureStackTraces = true;
 
-    private static Map<LinearizationKey, Iterable<Class<?>>> linearizations = java.util.Collections
-            .synchronizedMap(new WeakHashMap<LinearizationKey, Iterable<Class<?>>>());
+    /**
+     * incremented after cached linearizations have been removed, used by the
+     * {@link PrecedenceIndex} to detect stale entries
+     */
+    private static final AtomicInteger invalidationCount = new AtomicInteger();
 
     /**
      * Thrown when its not possible to linearize all superclasses.
+     * 
+     * <p>
+     * Failures are cached. Repeated lookups of a type which cannot be
+     * linearized throw a copy of the original exception without stack trace.
+     * </p>
      */
     public static class JavaC3Exception extends Error {
         private static final long serialVersionUID = 1L;
@@ -76,12 +59,25 @@ public class JavaC3 {
 
         protected JavaC3Exception(DirectSuperclassesInspector dsc, Iterable<Class<?>> partialResult,
                 Iterable<List<Class<?>>> remainingInputs) {
-            super("inconsistent precedence");
+            this(dsc, partialResult, remainingInputs, true);
+        }
+
+        protected JavaC3Exception(DirectSuperclassesInspector dsc, Iterable<Class<?>> partialResult,
+                Iterable<List<Class<?>>> remainingInputs, boolean writableStackTrace) {
+            super("inconsistent precedence", null, true, writableStackTrace);
             this.dsc = dsc;
             this.partialResult = partialResult;
             this.remainingInputs = remainingInputs;
         }
 
+        /**
+         * Create a copy of this exception without stack trace, which is cheap
+         * to throw again.
+         */
+        JavaC3Exception withoutStackTrace() {
+            return new JavaC3Exception(dsc, partialResult, remainingInputs, false);
+        }
+
         /**
          * Gets the value of partialResult This is really for expert use only.
          * Its the value of partialResult at the point the linearization failed.
@@ -114,130 +110,422 @@ public class JavaC3 {
         }
     }
 
-    private static Iterable<Class<?>> mergeLists(List<Class<?>> partialResult,
-            final List<List<Class<?>>> remainingInputs, final DirectSuperclassesInspector directParentClassesReader)
-            throws JavaC3Exception {
-        if (all(remainingInputs, equalTo(Collections.<Class<?>> emptyList()))) {
-            return partialResult;
-        }
+    /**
+     * Occurrence counters of a single class within the remaining inputs of a
+     * merge.
+     */
+    private static class Occurrences {
+        /**
+         * number of inputs the class is the head of
+         */
+        int heads;
 
-        Optional<Class<?>> nextOption = Optional.absent();
-        for (Class<?> c : Lists.reverse(partialResult)) {
-            nextOption = Iterables.tryFind(directParentClassesReader.directParentClasses(c),
-                    isCandidate(remainingInputs));
-            if (nextOption.isPresent())
-                break;
+        /**
+         * number of inputs containing the class after their head
+         */
+        int tails;
+    }
+
+    /**
+     * Merge the input lists. Each input is consumed by advancing a head cursor,
+     * and the number of head and tail occurrences of each class is tracked, so
+     * checking a candidate takes constant time.
+     */
+    private static Linearization mergeLists(Class<?> type, Class<?>[][] inputs,
+            DirectSuperclassesInspector directParentClassesReader) throws JavaC3Exception {
+        int[] heads = new int[inputs.length];
+        Map<Class<?>, Occurrences> occurrences = new IdentityHashMap<>();
+        int remaining = 0;
+        for (Class<?>[] input : inputs) {
+            for (int i = 0; i < input.length; i++) {
+                Occurrences occ = occurrences.get(input[i]);
+                if (occ == null) {
+                    occ = new Occurrences();
+                    occurrences.put(input[i], occ);
+                }
+                if (i == 0)
+                    occ.heads++;
+                else
+                    occ.tails++;
+            }
+            if (input.length > 0)
+                remaining++;
         }
 
-        if (nextOption.isPresent()) {
-            List<List<Class<?>>> newRemainingInputs = Lists.newArrayList();
-            Class<?> next = nextOption.get();
-            for (List<Class<?>> input : remainingInputs) {
-                newRemainingInputs.add(input.indexOf(next) == 0 ? input.subList(1, input.size()) : input);
+        // the direct parents of the classes in the result, in the same order
+        List<Class<?>> result = new ArrayList<>();
+        List<List<Class<?>>> resultParents = new ArrayList<>();
+        result.add(type);
+        resultParents.add(directParentClassesReader.directParentClasses(type));
+
+        while (remaining > 0) {
+            Class<?> next = null;
+            for (int i = resultParents.size() - 1; i >= 0 && next == null; i--) {
+                for (Class<?> candidate : resultParents.get(i)) {
+                    if (isCandidate(occurrences.get(candidate))) {
+                        next = candidate;
+                        break;
+                    }
+                }
+            }
+
+            if (next == null) {
+                List<List<Class<?>>> remainingInputs = new ArrayList<>(inputs.length);
+                for (int i = 0; i < inputs.length; i++) {
+                    remainingInputs.add(Collections
+                            .unmodifiableList(Arrays.asList(inputs[i]).subList(heads[i], inputs[i].length)));
+                }
+                throw new JavaC3Exception(directParentClassesReader, result, remainingInputs,
+                        captureFailureStackTraces);
             }
 
-            return mergeLists(newArrayList(concat(partialResult, singletonList(next))), newRemainingInputs,
-                    directParentClassesReader);
-        } else {
-            throw new JavaC3Exception(directParentClassesReader, partialResult, remainingInputs);
+            // advance the inputs starting with the next class
+            for (int i = 0; i < inputs.length; i++) {
+                Class<?>[] input = inputs[i];
+                if (heads[i] < input.length && input[heads[i]] == next) {
+                    occurrences.get(next).heads--;
+                    heads[i]++;
+                    if (heads[i] < input.length) {
+                        Occurrences occ = occurrences.get(input[heads[i]]);
+                        occ.tails--;
+                        occ.heads++;
+                    } else
+                        remaining--;
+                }
+            }
+
+            result.add(next);
+            resultParents.add(directParentClassesReader.directParentClasses(next));
         }
+        return new Linearization(result.toArray(new Class<?>[result.size()]));
     }
 
     /**
      * To be a candidate for the next place in the linearization, you must be
      * the head of at least one list, and in the tail of none of the lists.
      * 
-     * @param remainingInputs
-     *            the lists we are looking for position in.
+     * @param occurrences
+     *            the occurrences of the class in the remaining inputs, null if
+     *            the class does not occur at all
      * @return true if the class is a candidate for next.
      */
-    private static <X> Predicate<X> isCandidate(final Iterable<List<X>> remainingInputs) {
-        return new Predicate<X>() {
-
-            Predicate<List<X>> headIs(final X c) {
-                return new Predicate<List<X>>() {
-                    @Override
-                    public boolean apply(List<X> input) {
-                        return !input.isEmpty() && c.equals(input.get(0));
-                    }
-                };
-            }
-
-            Predicate<List<X>> tailContains(final X c) {
-                return new Predicate<List<X>>() {
-                    @Override
-                    public boolean apply(List<X> input) {
-                        return input.indexOf(c) > 0;
-                    }
-                };
-            }
-
-            @Override
-            public boolean apply(final X c) {
-                return any(remainingInputs, headIs(c)) && all(remainingInputs, not(tailContains(c)));
-            }
-        };
+    private static boolean isCandidate(Occurrences occurrences) {
+        return occurrences != null && occurrences.heads > 0 && occurrences.tails == 0;
     }
 
-    private static Iterable<Class<?>> computeClassLinearization(Class<?> c, final DirectSuperclassesInspector dsc)
-            throws JavaC3Exception {
+    /**
+     * Compute the linearization of c. The linearizations of the direct
+     * superclasses are taken from the cache.
+     */
+    static Linearization computeClassLinearization(Class<?> c, LinearizationCache cache) throws JavaC3Exception {
+        DirectSuperclassesInspector dsc = cache.getDirectParentClassesReader();
         List<Class<?>> cDirectSuperclasses = dsc.directParentClasses(c);
 
-        Function<Class<?>, List<Class<?>>> cplList = new Function<Class<?>, List<Class<?>>>() {
-            @Override
-            public List<Class<?>> apply(Class<?> c) {
-                return newArrayList(allSuperclasses(c, dsc));
-            }
-        };
+        Class<?>[][] inputs = new Class<?>[cDirectSuperclasses.size() + 1][];
+        for (int i = 0; i < cDirectSuperclasses.size(); i++) {
+            // the inputs are never modified, so the backing array can be shared
+            inputs[i] = cache.get(cDirectSuperclasses.get(i)).classes();
+        }
+        inputs[cDirectSuperclasses.size()] = cDirectSuperclasses.toArray(new Class<?>[cDirectSuperclasses.size()]);
 
-        return mergeLists(Collections.<Class<?>> singletonList(c),
-                newArrayList(concat(Lists.transform(cDirectSuperclasses, cplList), singletonList(cDirectSuperclasses))),
-                dsc);
+        return mergeLists(c, inputs, dsc);
     }
 
     /**
      * Return the linearization of c, using the
      * {@link DefaultDirectSuperclassesInspector}. The returned iterable will
      * start with c, followed by the superclasses of c in linearization order.
+     * 
+     * @see #linearize(Class)
      */
     public static Iterable<Class<?>> allSuperclasses(Class<?> c) throws JavaC3Exception {
-        return allSuperclasses(c, DefaultDirectSuperclassesInspector.INSTANCE);
+        return linearize(c);
     }
 
     /**
      * Return the linearization of c, using the
-     * {@link DefaultDirectSuperclassesInspector}. The returned iterable will
-     * start with {@link Object}, followed by the superclasses of c in
-     * linearization order and end with c.
+     * {@link DefaultDirectSuperclassesInspector}. The returned collection
+     * will start with {@link Object}, followed by the superclasses of c in
+     * reverse linearization order and end with c. It is a view of
+     * {@link #linearize(Class)}, no copy is made.
      */
     public static Collection<Class<?>> allSuperclassesReverse(Class<?> c) throws JavaC3Exception {
-        ArrayList<Class<?>> result = new ArrayList<>();
-        allSuperclasses(c, DefaultDirectSuperclassesInspector.INSTANCE).forEach(result::add);
-        Collections.reverse(result);
-        return result;
+        return linearize(c).reverse();
     }
 
     /**
      * Return the linearization of c. The returned iterable will start with c,
      * followed by the superclasses of c in linearization order.
+     * 
+     * @see #linearize(Class, DirectSuperclassesInspector)
      */
-    public static Iterable<Class<?>> allSuperclasses(Class<?> c, DirectSuperclassesInspector directParentClassesReader)
+    public static Iterable<Class<?>> allSuperclasses(Class<?> c,
+            DirectSuperclassesInspector directParentClassesReader) throws JavaC3Exception {
+        return linearize(c, directParentClassesReader);
+    }
+
+    /**
+     * Return the linearization of c, using the
+     * {@link DefaultDirectSuperclassesInspector}. The returned linearization
+     * will start with c, followed by the superclasses of c in linearization
+     * order.
+     */
+    public static Linearization linearize(Class<?> c) throws JavaC3Exception {
+        return linearize(c, DefaultDirectSuperclassesInspector.INSTANCE);
+    }
+
+    /**
+     * Return the linearization of c. The returned linearization will start
+     * with c, followed by the superclasses of c in linearization order.
+     */
+    public static Linearization linearize(Class<?> c, DirectSuperclassesInspector directParentClassesReader)
             throws JavaC3Exception {
-        LinearizationKey key = new LinearizationKey(directParentClassesReader, c);
-        Iterable<Class<?>> linearization = linearizations.get(key);
-        if (linearization == null) {
-            linearization = computeClassLinearization(c, directParentClassesReader);
-            linearizations.put(key, linearization);
+        return getCache(directParentClassesReader).get(c);
+    }
+
+    /**
+     * Return the linearization of c, using the
+     * {@link DefaultDirectSuperclassesInspector}, or an empty optional if c
+     * cannot be linearized. Never throws a {@link JavaC3Exception}.
+     */
+    public static Optional<Linearization> tryAllSuperclasses(Class<?> c) {
+        return tryAllSuperclasses(c, DefaultDirectSuperclassesInspector.INSTANCE);
+    }
+
+    /**
+     * Return the linearization of c, or an empty optional if c cannot be
+     * linearized. Never throws a {@link JavaC3Exception}.
+     */
+    public static Optional<Linearization> tryAllSuperclasses(Class<?> c,
+            DirectSuperclassesInspector directParentClassesReader) {
+        return Optional.ofNullable(getCache(directParentClassesReader).tryGet(c));
+    }
+
+    /**
+     * Control if a {@link JavaC3Exception} captures the stack trace when a
+     * linearization fails for the first time. Defaults to true. Since failures
+     * are cached, the stack trace of the first failure is the only one which is
+     * ever captured.
+     */
+    public static void setCaptureFailureStackTraces(boolean capture) {
+        captureFailureStackTraces = capture;
+    }
+
+    /**
+     * Return the linearization of a generic type, using the
+     * {@link DefaultDirectSuperclassesInspector}. The returned linearization
+     * will start with the given type, followed by its supertypes in
+     * linearization order, resolved against the given type.
+     */
+    public static GenericLinearization allSupertypes(TypeToken<?> type) throws JavaC3Exception {
+        return allSupertypes(type, DefaultDirectSuperclassesInspector.INSTANCE);
+    }
+
+    /**
+     * Return the linearization of a generic type. The returned linearization
+     * will start with the given type, followed by its supertypes in
+     * linearization order, resolved against the given type. The result is
+     * cached and shares the linearization of the raw type.
+     */
+    public static GenericLinearization allSupertypes(TypeToken<?> type,
+            DirectSuperclassesInspector directParentClassesReader) throws JavaC3Exception {
+        return getCache(directParentClassesReader).getGeneric(type);
+    }
+
+    /**
+     * Return the linearizations of all given classes, using the
+     * {@link DefaultDirectSuperclassesInspector}.
+     * 
+     * @see #linearizeAll(Collection, DirectSuperclassesInspector)
+     */
+    public static Map<Class<?>, Linearization> linearizeAll(Collection<Class<?>> classes) throws JavaC3Exception {
+        return linearizeAll(classes, DefaultDirectSuperclassesInspector.INSTANCE);
+    }
+
+    /**
+     * Return the linearizations of all given classes. The classes and all their
+     * superclasses are linearized bottom-up in topological order, such that
+     * the linearizations of the direct superclasses are always available when
+     * a class is linearized. Each shared superclass is linearized exactly once,
+     * and no deep recursion occurs. The results are added to the cache.
+     * 
+     * @return map from the given classes to their linearizations, in the
+     *         iteration order of the given classes
+     */
+    public static Map<Class<?>, Linearization> linearizeAll(Collection<Class<?>> classes,
+            DirectSuperclassesInspector directParentClassesReader) throws JavaC3Exception {
+        LinearizationCache cache = getCache(directParentClassesReader);
+        for (Class<?> cls : topologicalOrder(classes, cache.getDirectParentClassesReader())) {
+            cache.get(cls);
+        }
+
+        Map<Class<?>, Linearization> result = new LinkedHashMap<>();
+        for (Class<?> cls : classes) {
+            result.put(cls, cache.get(cls));
+        }
+        return result;
+    }
+
+    /**
+     * Return the given classes and all their superclasses, ordered such that
+     * every class comes after all its direct superclasses.
+     */
+    private static List<Class<?>> topologicalOrder(Collection<Class<?>> classes,
+            DirectSuperclassesInspector directParentClassesReader) {
+        List<Class<?>> result = new ArrayList<>();
+        Set<Class<?>> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        // iterative depth first search, emitting classes in post order
+        Deque<Class<?>> typeStack = new ArrayDeque<>();
+        Deque<Iterator<Class<?>>> parentStack = new ArrayDeque<>();
+        for (Class<?> root : classes) {
+            if (!visited.add(root))
+                continue;
+            typeStack.push(root);
+            parentStack.push(directParentClassesReader.directParentClasses(root).iterator());
+            while (!typeStack.isEmpty()) {
+                Iterator<Class<?>> parents = parentStack.peek();
+                if (parents.hasNext()) {
+                    Class<?> parent = parents.next();
+                    if (visited.add(parent)) {
+                        typeStack.push(parent);
+                        parentStack.push(directParentClassesReader.directParentClasses(parent).iterator());
+                    }
+                } else {
+                    parentStack.pop();
+                    result.add(typeStack.pop());
+                }
+            }
         }
+        return result;
+    }
 
-        return linearization;
+    static LinearizationCache getCache(DirectSuperclassesInspector directParentClassesReader) {
+        LinearizationCache cache = linearizations.get(directParentClassesReader);
+        if (cache == null) {
+            cache = linearizations.computeIfAbsent(directParentClassesReader, LinearizationCache::new);
+        }
+        return cache;
     }
 
     /**
-     * The class linearizations are cached in a static map. This cache can lead
-     * to classloader leaks. By calling this class, the cache is flushed.
+     * The class linearizations are cached per {@link DirectSuperclassesInspector}
+     * in a static map. While the cached linearizations live only as long as
+     * the linearized class, the inspectors are referenced strongly. By calling
+     * this method, the cache is flushed.
      */
     public static void clearCache() {
         linearizations.clear();
+        invalidationCount.incrementAndGet();
+    }
+
+    /**
+     * Enable or disable recording the statistics of the linearization caches.
+     * Disabled by default, to keep cache hits as cheap as possible.
+     * 
+     * @see #getCacheStats(DirectSuperclassesInspector)
+     */
+    public static void setRecordStats(boolean recordStats) {
+        LinearizationCache.recordStats = recordStats;
+    }
+
+    /**
+     * Return the statistics of the class linearization cache of the given
+     * inspector. The linearizations are cached using a {@link ClassValue}, so
+     * they are never evicted but removed together with their class.
+     */
+    public static CacheStats getCacheStats(DirectSuperclassesInspector directParentClassesReader) {
+        LinearizationCache cache = linearizations.get(directParentClassesReader);
+        return cache == null ? new CacheStats(0, 0, 0, 0, 0, 0) : cache.stats();
+    }
+
+    /**
+     * Return the class linearizations currently cached for the given
+     * inspector. The returned map is a copy.
+     */
+    public static Map<Class<?>, Linearization> getCachedLinearizations(
+            DirectSuperclassesInspector directParentClassesReader) {
+        LinearizationCache cache = linearizations.get(directParentClassesReader);
+        return cache == null ? new LinkedHashMap<>() : cache.getCached();
+    }
+
+    /**
+     * Remove the cached linearizations of the given type and of all types
+     * whose linearization includes the given type. Generic linearizations
+     * with type arguments referencing the type are removed as well.
+     */
+    public static void invalidate(Class<?> type) {
+        for (LinearizationCache cache : linearizations.values()) {
+            cache.invalidate(cls -> cls == type);
+        }
+        invalidationCount.incrementAndGet();
+    }
+
+    /**
+     * Remove the cached linearizations of all types loaded by the given class
+     * loader and of all types whose linearization includes such a type.
+     * Generic linearizations with type arguments referencing such a type are
+     * removed as well.
+     */
+    public static void invalidate(ClassLoader classLoader) {
+        for (LinearizationCache cache : linearizations.values()) {
+            cache.invalidate(cls -> cls.getClassLoader() == classLoader);
+        }
+        invalidationCount.incrementAndGet();
+    }
+
+    /**
+     * Return the number of invalidations so far. If the count did not change,
+     * no cached linearization has been removed.
+     */
+    static int getInvalidationCount() {
+        return invalidationCount.get();
+    }
+
+    /**
+     * Return true if any class of the linearization has been loaded by the
+     * given class loader
+     */
+    public static boolean dependsOn(Linearization linearization, ClassLoader classLoader) {
+        for (Class<?> cls : linearization) {
+            if (cls.getClassLoader() == classLoader)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Return true if the type or any of its superclasses has been loaded by
+     * the given class loader. Uses the cached linearization of the type if
+     * present. Otherwise the direct superclasses are walked using the
+     * caching inspector of the {@link DefaultDirectSuperclassesInspector}, so
+     * no linearization is computed and no {@link JavaC3Exception} is thrown.
+     */
+    public static boolean dependsOn(Class<?> type, ClassLoader classLoader) {
+        LinearizationCache cache = getCache(DefaultDirectSuperclassesInspector.INSTANCE);
+        Linearization linearization = cache.getIfPresent(type);
+        if (linearization != null)
+            return dependsOn(linearization, classLoader);
+        DirectSuperclassesInspector inspector = cache.getDirectParentClassesReader();
+        Set<Class<?>> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Class<?>> pending = new ArrayDeque<>();
+        pending.push(type);
+        while (!pending.isEmpty()) {
+            Class<?> cls = pending.pop();
+            if (!visited.add(cls))
+                continue;
+            if (cls.getClassLoader() == classLoader)
+                return true;
+            linearization = cache.getIfPresent(cls);
+            if (linearization != null) {
+                if (dependsOn(linearization, classLoader))
+                    return true;
+                continue;
+            }
+            for (Class<?> parent : inspector.directParentClasses(cls)) {
+                pending.push(parent);
+            }
+        }
+        return false;
     }
 }
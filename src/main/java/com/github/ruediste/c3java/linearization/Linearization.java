@@ -0,0 +1,147 @@
+package com.github.ruediste.c3java.linearization;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * The linearization of a class, as returned by
+ * {@link JavaC3#linearize(Class)}.
+ *
+ * <p>
+ * Instances are immutable and backed by an array. Besides indexed access,
+ * {@link #indexOf(Object)} is answered in constant time using a small identity
+ * hash table. {@link #reverse()} returns a view sharing the same array.
+ * </p>
+ */
+public final class Linearization extends AbstractList<Class<?>> implements RandomAccess {
+
+    private final Class<?>[] classes;
+
+    /**
+     * open addressing identity hash table, mapping the classes to their index
+     * in {@link #classes}
+     */
+    private final Class<?>[] table;
+    private final int[] tableIndexes;
+
+    private final boolean reversed;
+    private final Linearization reverse;
+
+    /**
+     * Create a linearization. The array is not copied and must not be modified
+     * afterwards.
+     */
+    Linearization(Class<?>[] classes) {
+        this.classes = classes;
+        int tableSize = Integer.highestOneBit(Math.max(1, classes.length) * 2) * 2;
+        table = new Class<?>[tableSize];
+        tableIndexes = new int[tableSize];
+        for (int i = 0; i < classes.length; i++) {
+            int slot = slot(classes[i]);
+            while (table[slot] != null && table[slot] != classes[i])
+                slot = (slot + 1) & (tableSize - 1);
+            if (table[slot] == null) {
+                table[slot] = classes[i];
+                tableIndexes[slot] = i;
+            }
+        }
+        reversed = false;
+        reverse = new Linearization(this);
+    }
+
+    /**
+     * Create the reverse view of a linearization
+     */
+    private Linearization(Linearization reverse) {
+        this.classes = reverse.classes;
+        this.table = reverse.table;
+        this.tableIndexes = reverse.tableIndexes;
+        this.reversed = !reverse.reversed;
+        this.reverse = reverse;
+    }
+
+    private int slot(Class<?> cls) {
+        int h = System.identityHashCode(cls);
+        return (h ^ (h >>> 16)) & (table.length - 1);
+    }
+
+    /**
+     * Return the index of the class within the backing array, or -1 if it is
+     * not part of this linearization
+     */
+    private int arrayIndexOf(Object o) {
+        if (!(o instanceof Class))
+            return -1;
+        int slot = slot((Class<?>) o);
+        while (true) {
+            Class<?> cls = table[slot];
+            if (cls == null)
+                return -1;
+            if (cls == o)
+                return tableIndexes[slot];
+            slot = (slot + 1) & (table.length - 1);
+        }
+    }
+
+    @Override
+    public Class<?> get(int index) {
+        if (index < 0 || index >= classes.length)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + classes.length);
+        return classes[reversed ? classes.length - 1 - index : index];
+    }
+
+    @Override
+    public int size() {
+        return classes.length;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        int index = arrayIndexOf(o);
+        if (index < 0 || !reversed)
+            return index;
+        return classes.length - 1 - index;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return arrayIndexOf(o) >= 0;
+    }
+
+    /**
+     * Return true if both classes are part of this linearization and a comes
+     * before b.
+     */
+    public boolean precedes(Class<?> a, Class<?> b) {
+        int indexA = indexOf(a);
+        int indexB = indexOf(b);
+        return indexA >= 0 && indexB >= 0 && indexA < indexB;
+    }
+
+    /**
+     * Return a view of this linearization in reverse order. No copy is made.
+     */
+    public Linearization reverse() {
+        return reverse;
+    }
+
+    /**
+     * Return true if this is a reverse view, ending with the linearized class.
+     */
+    public boolean isReversed() {
+        return reversed;
+    }
+
+    /**
+     * Return the backing array in linearization order, starting with the
+     * linearized class. The array must not be modified.
+     */
+    Class<?>[] classes() {
+        return classes;
+    }
+}
@@ -0,0 +1,464 @@
+package com.github.ruediste.c3java.linearization;
+
+import java.lang.reflect.Executable;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.GenericDeclaration;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import com.github.ruediste.c3java.index.ReflectionIndex;
+import com.github.ruediste.c3java.instrumentation.Instrumentation;
+import com.github.ruediste.c3java.instrumentation.Instrumentations;
+import com.github.ruediste.c3java.jfr.JfrEvents;
+import com.github.ruediste.c3java.linearization.JavaC3.JavaC3Exception;
+import com.google.common.cache.CacheStats;
+import com.google.common.reflect.TypeToken;
+
+/**
+ * Cache of the linearizations computed with a single
+ * {@link DirectSuperclassesInspector}.
+ * 
+ * <p>
+ * The linearizations are attached to the linearized {@link Class} using a
+ * {@link ClassValue}. Thus an entry lives exactly as long as its class.
+ * </p>
+ * 
+ * <p>
+ * Lookups of cached linearizations do not acquire any lock. If a linearization
+ * is missing, it is computed while holding the lock of the entry of the class.
+ * Concurrent lookups of the same class wait for that computation instead of
+ * repeating it. Since the linearizations of the superclasses are computed
+ * before the linearization of a class completes, entry locks are always
+ * acquired from subclass to superclass, which rules out deadlocks.
+ * </p>
+ * 
+ * <p>
+ * The inspector is wrapped in a {@link CachingDirectSuperclassesInspector}, so
+ * the merge does not need to recompute the direct parent classes.
+ * </p>
+ * 
+ * <p>
+ * The linearizations of generic types are attached to their raw class as well,
+ * or to a type argument if it is loaded by a descendant of the class loader of
+ * the raw class.
+ * </p>
+ * 
+ * <p>
+ * When using the {@link DefaultDirectSuperclassesInspector}, linearizations
+ * missing from the cache are first looked up in the {@link ReflectionIndex}.
+ * </p>
+ * 
+ * <p>
+ * If a class cannot be linearized, the failure is cached as well and rethrown
+ * without capturing a new stack trace.
+ * </p>
+ * 
+ * <p>
+ * To support targeted invalidation, the cached types are additionally tracked
+ * in a weak set. The set is only modified when a linearization is computed or
+ * invalidated.
+ * </p>
+ */
+class LinearizationCache {
+
+    private static class Entry {
+        volatile Linearization linearization;
+
+        /**
+         * set if the class cannot be linearized
+         */
+        volatile JavaC3Exception failure;
+
+        /**
+         * linearizations of generic types attached to the class, created on
+         * demand
+         *
+         * @see LinearizationCache#getGeneric(TypeToken)
+         */
+        volatile ConcurrentMap<TypeToken<?>, GenericLinearization> genericLinearizations;
+    }
+
+    private final CachingDirectSuperclassesInspector directParentClassesReader;
+
+    private final ClassValue<Entry> entries = new ClassValue<Entry>() {
+        @Override
+        protected Entry computeValue(Class<?> type) {
+            return new Entry();
+        }
+    };
+
+    /**
+     * weak set of the types with a computed linearization
+     */
+    private final Set<Class<?>> cachedTypes = Collections
+            .synchronizedSet(Collections.newSetFromMap(new WeakHashMap<Class<?>, Boolean>()));
+
+    static volatile boolean recordStats;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadSuccessCount = new LongAdder();
+    private final LongAdder loadExceptionCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+
+    LinearizationCache(DirectSuperclassesInspector directParentClassesReader) {
+        this.directParentClassesReader = CachingDirectSuperclassesInspector.of(directParentClassesReader);
+    }
+
+    /**
+     * The caching inspector used to compute the linearizations
+     */
+    DirectSuperclassesInspector getDirectParentClassesReader() {
+        return directParentClassesReader;
+    }
+
+    /**
+     * Return the linearization of the given type, computing it if necessary
+     */
+    Linearization get(Class<?> type) throws JavaC3Exception {
+        Entry entry = entries.get(type);
+        Object event = JfrEvents.beginLinearization();
+        if (event == null)
+            return lookup(type, entry);
+        boolean cached = entry.linearization != null;
+        try {
+            return lookup(type, entry);
+        } finally {
+            JfrEvents.commit(event, type, cached);
+        }
+    }
+
+    private Linearization lookup(Class<?> type, Entry entry) throws JavaC3Exception {
+        Linearization linearization = entry.linearization;
+        if (linearization == null) {
+            synchronized (entry) {
+                linearization = entry.linearization;
+                if (linearization == null) {
+                    JavaC3Exception failure = entry.failure;
+                    if (failure != null)
+                        throw failure.withoutStackTrace();
+                    boolean recordStats = LinearizationCache.recordStats;
+                    long start = recordStats ? System.nanoTime() : 0;
+                    Instrumentation instrumentation = Instrumentations.get();
+                    if (instrumentation != Instrumentations.NOOP)
+                        instrumentation.cacheMiss(Instrumentation.LINEARIZATION_CACHE);
+                    try {
+                        linearization = getIndexed(type);
+                        if (linearization == null) {
+                            if (instrumentation != Instrumentations.NOOP) {
+                                long computeStart = System.nanoTime();
+                                linearization = JavaC3.computeClassLinearization(type, this);
+                                instrumentation.linearizationComputed(type, System.nanoTime() - computeStart);
+                            } else
+                                linearization = JavaC3.computeClassLinearization(type, this);
+                        }
+                    } catch (JavaC3Exception e) {
+                        entry.failure = e;
+                        cachedTypes.add(type);
+                        if (recordStats) {
+                            missCount.increment();
+                            loadExceptionCount.increment();
+                        }
+                        throw e;
+                    }
+                    entry.linearization = linearization;
+                    cachedTypes.add(type);
+                    if (recordStats) {
+                        missCount.increment();
+                        loadSuccessCount.increment();
+                        totalLoadTime.add(System.nanoTime() - start);
+                    }
+                    return linearization;
+                }
+            }
+        }
+        if (recordStats)
+            hitCount.increment();
+        Instrumentation instrumentation = Instrumentations.get();
+        if (instrumentation != Instrumentations.NOOP)
+            instrumentation.cacheHit(Instrumentation.LINEARIZATION_CACHE);
+        return linearization;
+    }
+
+    /**
+     * Return the statistics of this cache. Only recorded while enabled by
+     * {@link JavaC3#setRecordStats(boolean)}. The eviction count is always
+     * zero.
+     */
+    CacheStats stats() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), loadSuccessCount.sum(), loadExceptionCount.sum(),
+                totalLoadTime.sum(), 0);
+    }
+
+    /**
+     * Return the linearization of the given type from the
+     * {@link ReflectionIndex}, or null if the type is not indexed or the index
+     * does not match the loaded classes.
+     *
+     * <p>
+     * The indexed names are resolved against the superclasses and interfaces
+     * reachable from the type, without asking a class loader. The indexed
+     * linearization is only used if it names exactly these classes and their
+     * class files pass the stamp check of the index. The order is trusted.
+     * </p>
+     */
+    private Linearization getIndexed(Class<?> type) {
+        if (directParentClassesReader.getDelegate() != DefaultDirectSuperclassesInspector.INSTANCE
+                || type.isArray())
+            return null;
+        ReflectionIndex index = ReflectionIndex.get(type);
+        List<String> names = index.getLinearization(type.getName());
+        if (names == null || names.isEmpty() || !names.get(0).equals(type.getName()))
+            return null;
+        Map<String, Class<?>> supertypes = supertypes(type, names.size());
+        if (supertypes == null)
+            return null;
+        Class<?>[] classes = new Class<?>[names.size()];
+        for (int i = 0; i < classes.length; i++) {
+            // removing detects duplicate names
+            Class<?> cls = supertypes.remove(names.get(i));
+            if (cls == null || !index.isCurrent(cls))
+                return null;
+            classes[i] = cls;
+        }
+        return new Linearization(classes);
+    }
+
+    /**
+     * Return the type and all its superclasses and interfaces by name,
+     * including {@link Object}. Returns null if the number of classes differs
+     * from the expected count, or if two of the classes have the same name.
+     */
+    private static Map<String, Class<?>> supertypes(Class<?> type, int expectedCount) {
+        Map<String, Class<?>> result = new HashMap<>(expectedCount * 2);
+        result.put(Object.class.getName(), Object.class);
+        Deque<Class<?>> pending = new ArrayDeque<>();
+        pending.push(type);
+        while (!pending.isEmpty()) {
+            Class<?> cls = pending.pop();
+            Class<?> existing = result.putIfAbsent(cls.getName(), cls);
+            if (existing != null) {
+                if (existing != cls)
+                    return null;
+                continue;
+            }
+            if (result.size() > expectedCount)
+                return null;
+            Class<?> superclass = cls.getSuperclass();
+            if (superclass != null)
+                pending.push(superclass);
+            for (Class<?> iface : cls.getInterfaces()) {
+                pending.push(iface);
+            }
+        }
+        return result.size() == expectedCount ? result : null;
+    }
+
+    /**
+     * Return the linearization of the given type, computing it if necessary.
+     * If the type cannot be linearized, null is returned. A cached failure is
+     * detected without throwing.
+     */
+    Linearization tryGet(Class<?> type) {
+        Entry entry = entries.get(type);
+        Linearization linearization = entry.linearization;
+        if (linearization != null)
+            return linearization;
+        if (entry.failure != null)
+            return null;
+        try {
+            return get(type);
+        } catch (JavaC3Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Return the class whose entry holds the linearization of a generic type.
+     * Starting with the given anchor, each class referenced by the type
+     * replaces the anchor if its class loader is a descendant of the class
+     * loader of the anchor. Returns null if two referenced classes have
+     * unrelated class loaders.
+     */
+    private static Class<?> anchor(Type type, Class<?> anchor) {
+        if (anchor == null)
+            return null;
+        if (type instanceof Class) {
+            Class<?> cls = (Class<?>) type;
+            if (isAncestor(cls.getClassLoader(), anchor.getClassLoader()))
+                return anchor;
+            if (isAncestor(anchor.getClassLoader(), cls.getClassLoader()))
+                return cls;
+            return null;
+        } else if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) type;
+            anchor = anchor(parameterizedType.getRawType(), anchor);
+            if (parameterizedType.getOwnerType() != null)
+                anchor = anchor(parameterizedType.getOwnerType(), anchor);
+            for (Type argument : parameterizedType.getActualTypeArguments()) {
+                anchor = anchor(argument, anchor);
+            }
+            return anchor;
+        } else if (type instanceof GenericArrayType) {
+            return anchor(((GenericArrayType) type).getGenericComponentType(), anchor);
+        } else if (type instanceof WildcardType) {
+            WildcardType wildcardType = (WildcardType) type;
+            for (Type bound : wildcardType.getUpperBounds()) {
+                anchor = anchor(bound, anchor);
+            }
+            for (Type bound : wildcardType.getLowerBounds()) {
+                anchor = anchor(bound, anchor);
+            }
+            return anchor;
+        } else if (type instanceof TypeVariable) {
+            GenericDeclaration declaration = ((TypeVariable<?>) type).getGenericDeclaration();
+            if (declaration instanceof Class)
+                return anchor((Class<?>) declaration, anchor);
+            if (declaration instanceof Executable)
+                return anchor(((Executable) declaration).getDeclaringClass(), anchor);
+            return null;
+        }
+        return null;
+    }
+
+    /**
+     * Return true if the given loader is the same as or an ancestor of the
+     * given descendant. The bootstrap class loader (null) is the ancestor of
+     * all class loaders.
+     */
+    private static boolean isAncestor(ClassLoader loader, ClassLoader descendant) {
+        if (loader == null)
+            return true;
+        for (ClassLoader l = descendant; l != null; l = l.getParent()) {
+            if (l == loader)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Return the linearization of the given type if it has already been
+     * computed, null otherwise
+     */
+    Linearization getIfPresent(Class<?> type) {
+        return entries.get(type).linearization;
+    }
+
+    /**
+     * Return the linearization of the given generic type, computing it if
+     * necessary.
+     *
+     * <p>
+     * The linearization is cached in the entry of the class referenced by the
+     * type whose class loader sees all other referenced classes, typically the
+     * raw type or one of the type arguments. Thus the cached linearization
+     * does not keep any class alive longer than that class is alive anyway.
+     * If the referenced classes are loaded by unrelated class loaders, the
+     * linearization is not cached.
+     * </p>
+     */
+    GenericLinearization getGeneric(TypeToken<?> type) throws JavaC3Exception {
+        Class<?> rawType = type.getRawType();
+        Class<?> anchor = anchor(type.getType(), rawType);
+        if (anchor == null)
+            return new GenericLinearization(type, get(rawType));
+        Entry entry = entries.get(anchor);
+        ConcurrentMap<TypeToken<?>, GenericLinearization> genericLinearizations = entry.genericLinearizations;
+        if (genericLinearizations == null) {
+            synchronized (entry) {
+                genericLinearizations = entry.genericLinearizations;
+                if (genericLinearizations == null) {
+                    genericLinearizations = new ConcurrentHashMap<>();
+                    entry.genericLinearizations = genericLinearizations;
+                    cachedTypes.add(anchor);
+                }
+            }
+        }
+        GenericLinearization result = genericLinearizations.get(type);
+        if (result == null) {
+            Linearization rawLinearization = get(rawType);
+            result = genericLinearizations.computeIfAbsent(type, t -> new GenericLinearization(t, rawLinearization));
+        }
+        return result;
+    }
+
+    /**
+     * Return the currently cached class linearizations
+     */
+    Map<Class<?>, Linearization> getCached() {
+        List<Class<?>> types;
+        synchronized (cachedTypes) {
+            types = new ArrayList<>(cachedTypes);
+        }
+        Map<Class<?>, Linearization> result = new LinkedHashMap<>();
+        for (Class<?> type : types) {
+            Linearization linearization = entries.get(type).linearization;
+            if (linearization != null)
+                result.put(type, linearization);
+        }
+        return result;
+    }
+
+    /**
+     * Remove all linearizations containing a class matching the given
+     * predicate. Generic linearizations are removed as well if one of the type
+     * arguments references a matching class.
+     */
+    void invalidate(Predicate<Class<?>> affected) {
+        List<Class<?>> types;
+        synchronized (cachedTypes) {
+            types = new ArrayList<>(cachedTypes);
+        }
+        for (Class<?> type : types) {
+            Entry entry = entries.get(type);
+            synchronized (entry) {
+                Linearization linearization = entry.linearization;
+                if (linearization != null && linearization.stream().anyMatch(affected)) {
+                    entry.linearization = null;
+                }
+                JavaC3Exception failure = entry.failure;
+                if (failure != null && (affected.test(type) || references(failure, affected))) {
+                    entry.failure = null;
+                }
+                ConcurrentMap<TypeToken<?>, GenericLinearization> genericLinearizations = entry.genericLinearizations;
+                if (genericLinearizations != null) {
+                    genericLinearizations.values().removeIf(x -> x.references(affected));
+                    if (genericLinearizations.isEmpty())
+                        entry.genericLinearizations = null;
+                }
+                if (entry.linearization == null && entry.failure == null && entry.genericLinearizations == null)
+                    cachedTypes.remove(type);
+            }
+        }
+    }
+
+    private static boolean references(JavaC3Exception failure, Predicate<Class<?>> affected) {
+        for (Class<?> cls : failure.getPartialResult()) {
+            if (affected.test(cls))
+                return true;
+        }
+        for (List<Class<?>> input : failure.getRemainingInputs()) {
+            for (Class<?> cls : input) {
+                if (affected.test(cls))
+                    return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,178 @@
+package com.github.ruediste.c3java.linearization;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.github.ruediste.c3java.linearization.JavaC3.JavaC3Exception;
+
+/**
+ * Linearizes a set of classes in parallel, typically to warm up the
+ * {@link JavaC3} cache during application startup.
+ * 
+ * <p>
+ * For each class a fork/join task is created, which first forks the tasks of
+ * the direct superclasses and then merges their linearizations. Thus
+ * independent parts of the type graph are linearized by separate workers, while
+ * the task of a shared superclass is created only once. The results are added
+ * to the {@link JavaC3} cache.
+ * </p>
+ * 
+ * <p>
+ * The tasks never join each other. A task runs the parent tasks it forked
+ * which were not stolen by other workers and then reads its linearization from
+ * the cache. The cache computes each linearization at most once and waits for
+ * a concurrent computation of the same class, so a parent still running on
+ * another worker is awaited there. Blocking joins on shared tasks could
+ * exhaust the workers of the pool. Cache lookups which may block are run as
+ * {@link ForkJoinPool.ManagedBlocker}s, allowing the pool to activate a spare
+ * worker while a worker waits for another one.
+ * </p>
+ */
+public class ParallelLinearizer {
+
+    private final LinearizationCache cache;
+    private final ConcurrentMap<Class<?>, LinearizationTask> tasks = new ConcurrentHashMap<>();
+
+    private ParallelLinearizer(DirectSuperclassesInspector directParentClassesReader) {
+        this.cache = JavaC3.getCache(directParentClassesReader);
+    }
+
+    /**
+     * Linearize the given classes in the common {@link ForkJoinPool}, using
+     * the {@link DefaultDirectSuperclassesInspector}.
+     */
+    public static Map<Class<?>, Linearization> linearizeAll(Collection<Class<?>> classes) throws JavaC3Exception {
+        return linearizeAll(classes, DefaultDirectSuperclassesInspector.INSTANCE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Linearize the given classes and all their superclasses in parallel.
+     * 
+     * @return map from the given classes to their linearizations, in the
+     *         iteration order of the given classes
+     */
+    public static Map<Class<?>, Linearization> linearizeAll(Collection<Class<?>> classes,
+            DirectSuperclassesInspector directParentClassesReader, ForkJoinPool pool) throws JavaC3Exception {
+        ParallelLinearizer linearizer = new ParallelLinearizer(directParentClassesReader);
+        return pool.invoke(new RecursiveTask<Map<Class<?>, Linearization>>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected Map<Class<?>, Linearization> compute() {
+                List<LinearizationTask> roots = new ArrayList<>();
+                for (Class<?> cls : classes) {
+                    roots.add(linearizer.taskFor(cls));
+                }
+                runUnstolen(roots);
+                Map<Class<?>, Linearization> result = new LinkedHashMap<>();
+                for (LinearizationTask root : roots) {
+                    result.put(root.type, linearizer.getManaged(root.type));
+                }
+                return result;
+            }
+        });
+    }
+
+    /**
+     * Return the task linearizing the given type. The task is forked by the
+     * first caller only.
+     */
+    private LinearizationTask taskFor(Class<?> type) {
+        LinearizationTask task = tasks.get(type);
+        if (task == null) {
+            LinearizationTask newTask = new LinearizationTask(type);
+            task = tasks.putIfAbsent(type, newTask);
+            if (task == null) {
+                task = newTask;
+                task.fork();
+            }
+        }
+        return task;
+    }
+
+    /**
+     * Run the given tasks forked by the current worker which have not been
+     * stolen, in reverse order of forking
+     */
+    private static void runUnstolen(List<LinearizationTask> tasks) {
+        for (int i = tasks.size() - 1; i >= 0; i--) {
+            LinearizationTask task = tasks.get(i);
+            if (task.tryUnfork())
+                task.invoke();
+        }
+    }
+
+    /**
+     * Return the linearization of the given type from the cache. If it is not
+     * cached yet, the lookup may wait for a computation on another worker and
+     * is run as managed blocker.
+     */
+    private Linearization getManaged(Class<?> type) {
+        Linearization linearization = cache.getIfPresent(type);
+        if (linearization != null)
+            return linearization;
+        CacheLookup lookup = new CacheLookup(type);
+        try {
+            ForkJoinPool.managedBlock(lookup);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while linearizing " + type, e);
+        }
+        return lookup.linearization;
+    }
+
+    private class CacheLookup implements ForkJoinPool.ManagedBlocker {
+        private final Class<?> type;
+        Linearization linearization;
+
+        CacheLookup(Class<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        public boolean block() {
+            linearization = cache.get(type);
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            if (linearization == null)
+                linearization = cache.getIfPresent(type);
+            return linearization != null;
+        }
+    }
+
+    private class LinearizationTask extends RecursiveTask<Linearization> {
+        private static final long serialVersionUID = 1L;
+
+        final Class<?> type;
+
+        LinearizationTask(Class<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        protected Linearization compute() {
+            Linearization linearization = cache.getIfPresent(type);
+            if (linearization != null)
+                return linearization;
+
+            List<LinearizationTask> parents = new ArrayList<>();
+            for (Class<?> parent : cache.getDirectParentClassesReader().directParentClasses(type)) {
+                parents.add(taskFor(parent));
+            }
+            runUnstolen(parents);
+
+            // computes or awaits the parents which are not cached yet
+            return getManaged(type);
+        }
+    }
+}
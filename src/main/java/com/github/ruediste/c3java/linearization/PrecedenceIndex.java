@@ -0,0 +1,301 @@
+package com.github.ruediste.c3java.linearization;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.github.ruediste.c3java.linearization.JavaC3.JavaC3Exception;
+
+/**
+ * Index answering subtype and precedence queries on the linearizations of a
+ * {@link DirectSuperclassesInspector}.
+ *
+ * <p>
+ * Each class gets a small integer id. The ids of unloaded classes are reused.
+ * The linearization of a class is stored as array of ids, together with a
+ * small hash table mapping ids to positions. Thus membership and precedence
+ * queries take constant time and do not allocate, and the most specific of a
+ * number of candidates is found in a single pass. Callers issuing many queries
+ * can keep the ids of the classes they use and call the id based methods. An
+ * id is only valid as long as its class is not unloaded.
+ * </p>
+ *
+ * <p>
+ * The indexed linearizations are attached to the classes using a
+ * {@link ClassValue} and live as long as their class, or until the underlying
+ * linearization is invalidated using {@link JavaC3#invalidate(Class)} and
+ * related methods. They do not reference the index, so an index is garbage
+ * collected once it is not used anymore.
+ * </p>
+ */
+public class PrecedenceIndex {
+
+    private static final PrecedenceIndex DEFAULT = new PrecedenceIndex(DefaultDirectSuperclassesInspector.INSTANCE);
+
+    private final DirectSuperclassesInspector directParentClassesReader;
+
+    private final ClassValue<Integer> ids = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return allocateId(type);
+        }
+    };
+
+    /**
+     * The following fields are guarded by the lock of the index
+     */
+    private int nextId;
+    private final Deque<Integer> freeIds = new ArrayDeque<>();
+    private final ReferenceQueue<Class<?>> unloadedClasses = new ReferenceQueue<>();
+    private final Set<IdReference> idReferences = new HashSet<>();
+
+    /**
+     * Tracks the class an id has been allocated for, to reclaim the id once
+     * the class is unloaded
+     */
+    private static class IdReference extends WeakReference<Class<?>> {
+        final int id;
+
+        IdReference(Class<?> type, int id, ReferenceQueue<Class<?>> queue) {
+            super(type, queue);
+            this.id = id;
+        }
+    }
+
+    private final ClassValue<IndexedLinearization> linearizations = new ClassValue<IndexedLinearization>() {
+        @Override
+        protected IndexedLinearization computeValue(Class<?> type) {
+            int invalidationCount = JavaC3.getInvalidationCount();
+            Linearization linearization = JavaC3.linearize(type, directParentClassesReader);
+            return new IndexedLinearization(linearization, ids(linearization), invalidationCount);
+        }
+    };
+
+    public PrecedenceIndex(DirectSuperclassesInspector directParentClassesReader) {
+        this.directParentClassesReader = directParentClassesReader;
+    }
+
+    /**
+     * Return the index using the {@link DefaultDirectSuperclassesInspector}
+     */
+    public static PrecedenceIndex getDefault() {
+        return DEFAULT;
+    }
+
+    public DirectSuperclassesInspector getDirectParentClassesReader() {
+        return directParentClassesReader;
+    }
+
+    /**
+     * Return the id of the given class. Ids are only meaningful within this
+     * index.
+     */
+    public int id(Class<?> cls) {
+        return ids.get(cls);
+    }
+
+    private synchronized int allocateId(Class<?> type) {
+        IdReference unloaded;
+        while ((unloaded = (IdReference) unloadedClasses.poll()) != null) {
+            idReferences.remove(unloaded);
+            freeIds.push(unloaded.id);
+        }
+        int id = freeIds.isEmpty() ? nextId++ : freeIds.pop();
+        idReferences.add(new IdReference(type, id, unloadedClasses));
+        return id;
+    }
+
+    private int[] ids(Linearization linearization) {
+        int[] result = new int[linearization.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = id(linearization.get(i));
+        return result;
+    }
+
+    /**
+     * Return the ids of the given classes
+     */
+    public int[] ids(Class<?>... classes) {
+        int[] result = new int[classes.length];
+        for (int i = 0; i < classes.length; i++)
+            result[i] = id(classes[i]);
+        return result;
+    }
+
+    /**
+     * Return the indexed linearization of the given type
+     */
+    public IndexedLinearization get(Class<?> type) throws JavaC3Exception {
+        IndexedLinearization result = linearizations.get(type);
+        int invalidationCount = JavaC3.getInvalidationCount();
+        if (result.invalidationCount != invalidationCount) {
+            if (JavaC3.linearize(type, directParentClassesReader) == result.linearization)
+                result.invalidationCount = invalidationCount;
+            else {
+                linearizations.remove(type);
+                result = linearizations.get(type);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Return true if the linearization of type contains supertype.
+     */
+    public boolean isSubtype(Class<?> type, Class<?> supertype) throws JavaC3Exception {
+        return get(type).contains(id(supertype));
+    }
+
+    /**
+     * Return true if both a and b are part of the linearization of type, and a
+     * comes before b.
+     */
+    public boolean precedes(Class<?> type, Class<?> a, Class<?> b) throws JavaC3Exception {
+        return get(type).precedes(id(a), id(b));
+    }
+
+    /**
+     * Return the candidate which comes first in the linearization of type, or
+     * null if none of the candidates is part of the linearization.
+     */
+    public Class<?> mostSpecific(Class<?> type, Class<?>... candidates) throws JavaC3Exception {
+        IndexedLinearization linearization = get(type);
+        Class<?> result = null;
+        int resultPosition = Integer.MAX_VALUE;
+        for (Class<?> candidate : candidates) {
+            int position = linearization.position(id(candidate));
+            if (position >= 0 && position < resultPosition) {
+                result = candidate;
+                resultPosition = position;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A linearization stored as ids
+     */
+    public static final class IndexedLinearization {
+        private final Linearization linearization;
+        private final int[] ids;
+
+        /**
+         * bit (id &amp; 63) is set for each contained id, to reject most ids
+         * without probing the table
+         */
+        private final long filter;
+
+        /**
+         * open addressing hash table from id+1 to position, 0 marks an empty
+         * slot
+         */
+        private final int[] tableKeys;
+        private final int[] tablePositions;
+
+        /**
+         * {@link JavaC3#getInvalidationCount()} when the linearization was
+         * last known to be current
+         */
+        volatile int invalidationCount;
+
+        IndexedLinearization(Linearization linearization, int[] ids, int invalidationCount) {
+            this.linearization = linearization;
+            this.ids = ids;
+            this.invalidationCount = invalidationCount;
+
+            long filter = 0;
+            int tableSize = Integer.highestOneBit(Math.max(1, ids.length) * 2) * 2;
+            tableKeys = new int[tableSize];
+            tablePositions = new int[tableSize];
+            for (int i = 0; i < ids.length; i++) {
+                int id = ids[i];
+                filter |= 1L << id;
+                int slot = slot(id);
+                while (tableKeys[slot] != 0)
+                    slot = (slot + 1) & (tableSize - 1);
+                tableKeys[slot] = id + 1;
+                tablePositions[slot] = i;
+            }
+            this.filter = filter;
+        }
+
+        private int slot(int id) {
+            int h = id * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & (tableKeys.length - 1);
+        }
+
+        /**
+         * The linearization this indexed linearization has been created from
+         */
+        public Linearization getLinearization() {
+            return linearization;
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        /**
+         * Return the id of the class at the given position
+         */
+        public int idAt(int position) {
+            return ids[position];
+        }
+
+        /**
+         * Return true if the class with the given id is part of this
+         * linearization.
+         */
+        public boolean contains(int id) {
+            return position(id) >= 0;
+        }
+
+        /**
+         * Return the position of the class with the given id, or -1 if it is
+         * not part of this linearization.
+         */
+        public int position(int id) {
+            if ((filter & (1L << id)) == 0)
+                return -1;
+            int slot = slot(id);
+            int key;
+            while ((key = tableKeys[slot]) != 0) {
+                if (key == id + 1)
+                    return tablePositions[slot];
+                slot = (slot + 1) & (tableKeys.length - 1);
+            }
+            return -1;
+        }
+
+        /**
+         * Return true if both ids are part of this linearization, and a comes
+         * before b.
+         */
+        public boolean precedes(int a, int b) {
+            int positionA = position(a);
+            int positionB = position(b);
+            return positionA >= 0 && positionB >= 0 && positionA < positionB;
+        }
+
+        /**
+         * Return the index of the candidate id which comes first in this
+         * linearization, or -1 if none of the candidates is part of this
+         * linearization.
+         */
+        public int mostSpecific(int[] candidateIds) {
+            int result = -1;
+            int resultPosition = Integer.MAX_VALUE;
+            for (int i = 0; i < candidateIds.length; i++) {
+                int position = position(candidateIds[i]);
+                if (position >= 0 && position < resultPosition) {
+                    result = i;
+                    resultPosition = position;
+                }
+            }
+            return result;
+        }
+    }
+}
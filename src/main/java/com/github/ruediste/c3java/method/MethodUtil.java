@@ -6,8 +6,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Objects;
 
+import com.github.ruediste.c3java.jfr.JfrEvents;
 import com.github.ruediste.c3java.linearization.JavaC3;
-import com.google.common.collect.Iterables;
+import com.github.ruediste.c3java.linearization.Linearization;
 
 public class MethodUtil {
 
@@ -16,9 +17,22 @@ public class MethodUtil {
      * declaration. The result starts with the given method.
      */
     public static Iterable<Method> getDeclarations(Method method) {
+        Object event = JfrEvents.beginMethodDeclarations(method);
+        if (event == null)
+            return calculateDeclarations(method);
+        try {
+            return calculateDeclarations(method);
+        } finally {
+            JfrEvents.commit(event, method.getDeclaringClass(), false);
+        }
+    }
+
+    private static Iterable<Method> calculateDeclarations(Method method) {
         ArrayList<Method> result = new ArrayList<>();
         result.add(method);
-        for (Class<?> cls : Iterables.skip(JavaC3.allSuperclasses(method.getDeclaringClass()), 1)) {
+        Linearization linearization = JavaC3.linearize(method.getDeclaringClass());
+        for (int i = 1; i < linearization.size(); i++) {
+            Class<?> cls = linearization.get(i);
             for (Method m : cls.getDeclaredMethods()) {
 
                 if (m.getName().equals(method.getName())
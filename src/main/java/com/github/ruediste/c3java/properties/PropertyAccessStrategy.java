@@ -0,0 +1,33 @@
+package com.github.ruediste.c3java.properties;
+
+/**
+ * How {@link PropertyValueAccessor}s access the getters, setters and backing
+ * fields of properties. The default strategy is set by
+ * {@link PropertyUtil#setAccessStrategy(PropertyAccessStrategy)}, accessors
+ * with a specific strategy are created by
+ * {@link PropertyInfo#getValueAccessor(PropertyAccessStrategy)}.
+ *
+ * <p>
+ * If a member cannot be accessed using the selected strategy, for example
+ * because the module system denies access, the accessor falls back to
+ * reflection.
+ * </p>
+ */
+public enum PropertyAccessStrategy {
+    /**
+     * Call public getters and setters of public classes through classes
+     * generated by the {@link java.lang.invoke.LambdaMetafactory}, and all
+     * other members through method handles
+     */
+    GENERATED,
+
+    /**
+     * Access all members through method handles
+     */
+    METHOD_HANDLE,
+
+    /**
+     * Access all members using reflection
+     */
+    REFLECTION
+}
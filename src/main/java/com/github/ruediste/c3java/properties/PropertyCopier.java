@@ -0,0 +1,140 @@
+package com.github.ruediste.c3java.properties;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.common.primitives.Primitives;
+
+/**
+ * Copies the values of the matching properties from instances of a source
+ * type to instances of a target type.
+ *
+ * <p>
+ * A property matches if it is readable on the source type, writeable on the
+ * target type, and the property type of the target is assignable from the
+ * property type of the source. Primitive values may be copied to properties of
+ * the wrapper type, but not the other way round.
+ * </p>
+ *
+ * <p>
+ * The matching properties are determined once when the copier is created. The
+ * getter and setter handles of all properties are then combined into a single
+ * {@link MethodHandle}, so a copy performs no lookups and no reflection, and
+ * does not box values of properties having the same primitive type on both
+ * sides. Copiers are immutable and can be shared between threads. Since
+ * creating a copier is expensive, it should be kept, for example in a static
+ * field.
+ * </p>
+ */
+public final class PropertyCopier {
+
+    private static final MethodType COPY_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final MethodHandle NOOP;
+
+    static {
+        try {
+            NOOP = MethodHandles.dropArguments(
+                    MethodHandles.lookup().findStatic(PropertyCopier.class, "noop", MethodType.methodType(void.class)),
+                    0, Object.class, Object.class);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static void noop() {
+    }
+
+    private final Class<?> sourceType;
+    private final Class<?> targetType;
+    private final List<String> propertyNames;
+
+    /**
+     * handle of type {@link #COPY_TYPE}, copying all properties
+     */
+    private final MethodHandle copy;
+
+    private PropertyCopier(Class<?> sourceType, Class<?> targetType, List<String> propertyNames, MethodHandle copy) {
+        this.sourceType = sourceType;
+        this.targetType = targetType;
+        this.propertyNames = propertyNames;
+        this.copy = copy;
+    }
+
+    /**
+     * Create a copier for the given source and target types.
+     */
+    public static PropertyCopier of(Class<?> sourceType, Class<?> targetType) {
+        Map<String, PropertyInfo> sourceProperties = PropertyUtil.getPropertyInfoMap(sourceType);
+        List<String> propertyNames = new ArrayList<>();
+        MethodHandle copy = NOOP;
+        for (Map.Entry<String, PropertyInfo> entry : new TreeMap<>(PropertyUtil.getPropertyInfoMap(targetType))
+                .entrySet()) {
+            PropertyInfo target = entry.getValue();
+            PropertyInfo source = sourceProperties.get(entry.getKey());
+            if (source == null || !source.isReadable() || !target.isWriteable() || !matches(source, target))
+                continue;
+            Class<?> sourceRawType = source.getPropertyType().getRawType();
+            Class<?> valueType = sourceRawType.isPrimitive()
+                    && sourceRawType == target.getPropertyType().getRawType() ? sourceRawType : Object.class;
+
+            // (targetObject, sourceObject)void
+            MethodHandle step = MethodHandles.filterArguments(target.getWriteHandle(valueType), 1,
+                    source.getReadHandle(valueType));
+            // runs the previous steps, then this step
+            copy = MethodHandles.foldArguments(MethodHandles.permuteArguments(step, COPY_TYPE, 1, 0), copy);
+            propertyNames.add(entry.getKey());
+        }
+        return new PropertyCopier(sourceType, targetType, Collections.unmodifiableList(propertyNames), copy);
+    }
+
+    private static boolean matches(PropertyInfo source, PropertyInfo target) {
+        if (source.getPropertyType() == null || target.getPropertyType() == null)
+            return false;
+        if (target.getPropertyType().isAssignableFrom(source.getPropertyType()))
+            return true;
+        Class<?> sourceRawType = source.getPropertyType().getRawType();
+        return sourceRawType.isPrimitive() && Primitives.wrap(sourceRawType) == target.getPropertyType().getRawType();
+    }
+
+    /**
+     * Copy the values of all matching properties from the source to the
+     * target object
+     */
+    public void copy(Object source, Object target) {
+        try {
+            copy.invokeExact(source, target);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException("Error while copying properties from " + source + " to " + target, t);
+        }
+    }
+
+    public Class<?> getSourceType() {
+        return sourceType;
+    }
+
+    public Class<?> getTargetType() {
+        return targetType;
+    }
+
+    /**
+     * The names of the copied properties, in the order they are copied
+     */
+    public List<String> getPropertyNames() {
+        return propertyNames;
+    }
+
+    @Override
+    public String toString() {
+        return "PropertyCopier [" + sourceType.getName() + " -> " + targetType.getName() + ", " + propertyNames + "]";
+    }
+}
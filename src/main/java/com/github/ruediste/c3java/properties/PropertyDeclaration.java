@@ -3,7 +3,6 @@ package com.github.ruediste.c3java.properties;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Optional;
@@ -31,6 +30,7 @@ public class PropertyDeclaration implements AnnotatedElement {
     private final Method setter;
     private final Field backingField;
     private final TypeToken<?> propertyType;
+    private volatile PropertyValueAccessor valueAccessor;
 
     public PropertyDeclaration(String name, Class<?> declaringType) {
         this(name, declaringType, null, null, null, null);
@@ -143,34 +143,53 @@ public class PropertyDeclaration implements AnnotatedElement {
         return propertyType;
     }
 
+    /**
+     * Return the accessor used to read and write the value of this property.
+     * It is created on first use using the
+     * {@link PropertyUtil#getAccessStrategy() default strategy} and cached.
+     */
+    public PropertyValueAccessor getValueAccessor() {
+        PropertyValueAccessor accessor = valueAccessor;
+        if (accessor == null) {
+            accessor = PropertyValueAccessors.create(PropertyUtil.getAccessStrategy(), getter, setter,
+                    backingField);
+            valueAccessor = accessor;
+        }
+        return accessor;
+    }
+
+    /**
+     * Read this property from the given target. Failures are reported like in
+     * {@link PropertyInfo#getValue(Object)}.
+     */
     public Object getValue(Object target) {
+        if (getter == null && backingField == null)
+            throw new RuntimeException(
+                    "Property declaration " + getDeclaringType() + "." + getName() + " is not readable");
         try {
-            if (getter != null)
-                return getter.invoke(target);
-            if (backingField != null) {
-                return backingField.get(target);
-            }
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-            throw new RuntimeException(e);
+            return getValueAccessor().getValue(target);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
         }
-        throw new RuntimeException("Property declaration " + getDeclaringType() + "." + getName() + " is not readable");
     }
 
+    /**
+     * Write this property of the given target. Failures are reported like in
+     * {@link PropertyInfo#setValue(Object, Object)}.
+     */
     public void setValue(Object target, Object value) {
+        if (setter == null && backingField == null)
+            throw new RuntimeException(
+                    "Property declaration " + getDeclaringType() + "." + getName() + " is not writeable");
         try {
-            if (setter != null) {
-                setter.invoke(target, value);
-                return;
-            }
-            if (backingField != null) {
-                backingField.set(target, value);
-                return;
-            }
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-            throw new RuntimeException(e);
+            getValueAccessor().setValue(target, value);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
         }
-        throw new RuntimeException(
-                "Property declaration " + getDeclaringType() + "." + getName() + " is not writeable");
     }
 
     private Stream<AnnotatedElement> elements() {
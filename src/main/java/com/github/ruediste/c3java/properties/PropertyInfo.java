@@ -1,9 +1,9 @@
 package com.github.ruediste.c3java.properties;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Iterator;
@@ -27,6 +27,7 @@ public class PropertyInfo implements AnnotatedElement {
     private final PropertyDeclaration declaration;
     private final PropertyInfo parent;
     private final Class<?> bearingType;
+    private volatile PropertyValueAccessor valueAccessor;
 
     public PropertyInfo(String name, TypeToken<?> propertyType, Method getter, Method setter, Field backingField,
             PropertyDeclaration declaration, PropertyInfo parent, Class<?> bearingType) {
@@ -77,29 +78,239 @@ public class PropertyInfo implements AnnotatedElement {
         return iterable;
     }
 
+    /**
+     * Return the accessor used to read and write the value of this property.
+     * It is created on first use using the
+     * {@link PropertyUtil#getAccessStrategy() default strategy} and cached.
+     */
+    public PropertyValueAccessor getValueAccessor() {
+        PropertyValueAccessor accessor = valueAccessor;
+        if (accessor == null) {
+            // no synchronization required. In the worst case, an accessor
+            // will be created multiple times
+            accessor = getValueAccessor(PropertyUtil.getAccessStrategy());
+            valueAccessor = accessor;
+        }
+        return accessor;
+    }
+
+    /**
+     * Return an accessor for this property using the given strategy. The
+     * readers and writers of the getter, setter and backing field are created
+     * once per strategy and shared with all other properties using the same
+     * members.
+     */
+    public PropertyValueAccessor getValueAccessor(PropertyAccessStrategy strategy) {
+        return PropertyValueAccessors.create(strategy, getter, setter, backingField);
+    }
+
+    /**
+     * Return a method handle of type {@code (Object)Object} reading this
+     * property. When stored in a {@code static final} field, the JIT compiler
+     * can inline calls to {@link MethodHandle#invokeExact(Object...)
+     * invokeExact()}. If the getter or backing field cannot be accessed
+     * through a method handle, the handle uses reflection.
+     */
+    public MethodHandle getReadHandle() {
+        return getReadHandle(Object.class);
+    }
+
+    /**
+     * Return a method handle of type {@code (Object)valueType} reading this
+     * property
+     */
+    MethodHandle getReadHandle(Class<?> valueType) {
+        if (getter != null)
+            return PropertyValueAccessors.readHandle(getter, valueType);
+        if (backingField != null)
+            return PropertyValueAccessors.readHandle(backingField, valueType);
+        throw new UnsupportedOperationException("Cannot read property " + name + " of " + bearingType);
+    }
+
+    /**
+     * Return a method handle of type {@code (Object,Object)void} writing this
+     * property. See {@link #getReadHandle()}.
+     */
+    public MethodHandle getWriteHandle() {
+        return getWriteHandle(Object.class);
+    }
+
+    /**
+     * Return a method handle of type {@code (Object,valueType)void} writing
+     * this property
+     */
+    MethodHandle getWriteHandle(Class<?> valueType) {
+        if (setter != null)
+            return PropertyValueAccessors.writeHandle(setter, valueType);
+        if (backingField != null)
+            return PropertyValueAccessors.writeHandle(backingField, valueType);
+        throw new UnsupportedOperationException("Cannot write property " + name + " of " + bearingType);
+    }
+
+    private void checkReadable() {
+        if (!isReadable())
+            throw new UnsupportedOperationException("Cannot read property " + name + " of " + bearingType);
+    }
+
+    private void checkWriteable() {
+        if (!isWriteable())
+            throw new UnsupportedOperationException("Cannot write property " + name + " of " + bearingType);
+    }
+
+    private RuntimeException setFailure(Object value, Throwable t) {
+        if (t instanceof Error)
+            throw (Error) t;
+        return new RuntimeException("Error while setting property " + this + " to value " + value, t);
+    }
+
+    private RuntimeException getFailure(Throwable t) {
+        if (t instanceof Error)
+            throw (Error) t;
+        return new RuntimeException("Error while reading property " + this, t);
+    }
+
+    /**
+     * Read this property from the given target.
+     *
+     * <p>
+     * Errors are rethrown. Other exceptions are wrapped in a
+     * {@link RuntimeException}. The cause is the exception thrown by the getter
+     * itself, without an intermediate
+     * {@link java.lang.reflect.InvocationTargetException}. If the target is
+     * not an instance of the declaring class, the cause is a
+     * {@link ClassCastException}.
+     * </p>
+     *
+     * @throws UnsupportedOperationException
+     *             if the property is not readable
+     */
     public Object getValue(Object target) {
+        checkReadable();
         try {
-            if (getter != null)
-                return getter.invoke(target);
-            if (backingField != null)
-                return backingField.get(target);
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-            throw new RuntimeException(e);
+            return getValueAccessor().getValue(target);
+        } catch (Throwable t) {
+            throw getFailure(t);
         }
-        throw new UnsupportedOperationException("Cannot read property " + name + " of found on type " + bearingType);
     }
 
+    /**
+     * Write this property of the given target. Failures are reported like in
+     * {@link #getValue(Object)}. A value of the wrong type results in a
+     * {@link ClassCastException} as cause.
+     *
+     * @throws UnsupportedOperationException
+     *             if the property is not writeable
+     */
     public void setValue(Object target, Object value) {
+        checkWriteable();
+        try {
+            getValueAccessor().setValue(target, value);
+        } catch (Throwable t) {
+            throw setFailure(value, t);
+        }
+    }
+
+    /**
+     * Read an int or Integer property. For int properties, the value is not
+     * boxed.
+     */
+    public int getInt(Object target) {
+        checkReadable();
+        try {
+            return getValueAccessor().getInt(target);
+        } catch (Throwable t) {
+            throw getFailure(t);
+        }
+    }
+
+    /**
+     * Write an int or Integer property. For int properties, the value is not
+     * boxed.
+     */
+    public void setInt(Object target, int value) {
+        checkWriteable();
+        try {
+            getValueAccessor().setInt(target, value);
+        } catch (Throwable t) {
+            throw setFailure(value, t);
+        }
+    }
+
+    /**
+     * Read a long or Long property. For long properties, the value is not
+     * boxed.
+     */
+    public long getLong(Object target) {
+        checkReadable();
+        try {
+            return getValueAccessor().getLong(target);
+        } catch (Throwable t) {
+            throw getFailure(t);
+        }
+    }
+
+    /**
+     * Write a long or Long property. For long properties, the value is not
+     * boxed.
+     */
+    public void setLong(Object target, long value) {
+        checkWriteable();
+        try {
+            getValueAccessor().setLong(target, value);
+        } catch (Throwable t) {
+            throw setFailure(value, t);
+        }
+    }
+
+    /**
+     * Read a double or Double property. For double properties, the value is
+     * not boxed.
+     */
+    public double getDouble(Object target) {
+        checkReadable();
+        try {
+            return getValueAccessor().getDouble(target);
+        } catch (Throwable t) {
+            throw getFailure(t);
+        }
+    }
+
+    /**
+     * Write a double or Double property. For double properties, the value is
+     * not boxed.
+     */
+    public void setDouble(Object target, double value) {
+        checkWriteable();
+        try {
+            getValueAccessor().setDouble(target, value);
+        } catch (Throwable t) {
+            throw setFailure(value, t);
+        }
+    }
+
+    /**
+     * Read a boolean or Boolean property. For boolean properties, the value is
+     * not boxed.
+     */
+    public boolean getBoolean(Object target) {
+        checkReadable();
+        try {
+            return getValueAccessor().getBoolean(target);
+        } catch (Throwable t) {
+            throw getFailure(t);
+        }
+    }
+
+    /**
+     * Write a boolean or Boolean property. For boolean properties, the value
+     * is not boxed.
+     */
+    public void setBoolean(Object target, boolean value) {
+        checkWriteable();
         try {
-            if (setter != null)
-                setter.invoke(target, value);
-            else if (backingField != null)
-                backingField.set(target, value);
-            else
-                throw new UnsupportedOperationException(
-                        "Cannot write property " + name + " of found on type " + bearingType);
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-            throw new RuntimeException("Error while setting property " + this + " to value " + value, e);
+            getValueAccessor().setBoolean(target, value);
+        } catch (Throwable t) {
+            throw setFailure(value, t);
         }
     }
 
@@ -0,0 +1,142 @@
+package com.github.ruediste.c3java.properties;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable map from property names to values, used for the cached property
+ * maps of {@link PropertyUtil}.
+ *
+ * <p>
+ * The entries are stored in an open addressing table with linear probing,
+ * sized to a power of two with a load factor of at most one half. The hashes of
+ * the names are stored along with the names, so a lookup of a missing name
+ * rarely needs a string comparison. Compared to a {@link java.util.HashMap}
+ * there are no entry objects, which saves memory and an indirection per
+ * lookup.
+ * </p>
+ */
+final class PropertyMap<V> extends AbstractMap<String, V> {
+
+    private final String[] names;
+    private final int[] hashes;
+    private final Object[] values;
+    private final int mask;
+    private final int size;
+
+    private PropertyMap(Map<String, ? extends V> map) {
+        int capacity = Integer.highestOneBit(Math.max(1, map.size()) * 2 - 1) << 1;
+        names = new String[capacity];
+        hashes = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        size = map.size();
+        for (Map.Entry<String, ? extends V> entry : map.entrySet()) {
+            String name = entry.getKey();
+            int hash = hash(name);
+            int i = hash & mask;
+            while (names[i] != null)
+                i = (i + 1) & mask;
+            names[i] = name;
+            hashes[i] = hash;
+            values[i] = entry.getValue();
+        }
+    }
+
+    /**
+     * Create an immutable copy of the given map. Neither names nor values may
+     * be null.
+     */
+    static <V> PropertyMap<V> copyOf(Map<String, ? extends V> map) {
+        return new PropertyMap<>(map);
+    }
+
+    private static int hash(String name) {
+        int h = name.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private int indexOf(Object key) {
+        if (!(key instanceof String))
+            return -1;
+        int hash = hash((String) key);
+        int i = hash & mask;
+        String name;
+        while ((name = names[i]) != null) {
+            if (hashes[i] == hash && (name == key || name.equals(key)))
+                return i;
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V get(Object key) {
+        int i = indexOf(key);
+        return i < 0 ? null : (V) values[i];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void forEach(BiConsumer<? super String, ? super V> action) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i] != null)
+                action.accept(names[i], (V) values[i]);
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+        return new AbstractSet<Map.Entry<String, V>>() {
+
+            @Override
+            public Iterator<Map.Entry<String, V>> iterator() {
+                return new Iterator<Map.Entry<String, V>>() {
+                    int next = advance(0);
+
+                    private int advance(int i) {
+                        while (i < names.length && names[i] == null)
+                            i++;
+                        return i;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < names.length;
+                    }
+
+                    @SuppressWarnings("unchecked")
+                    @Override
+                    public Map.Entry<String, V> next() {
+                        if (!hasNext())
+                            throw new NoSuchElementException();
+                        int i = next;
+                        next = advance(i + 1);
+                        return new SimpleImmutableEntry<>(names[i], (V) values[i]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
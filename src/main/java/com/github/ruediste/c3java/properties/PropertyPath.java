@@ -95,23 +95,93 @@ public class PropertyPath {
      */
     public Object evaluate(Object target) {
         Object result = target;
-        for (PropertyPathNode node : nodes) {
-            result = node.evaluate(result);
+        for (int i = 0; i < nodes.size(); i++) {
+            result = nodes.get(i).evaluate(result);
         }
         return result;
     }
 
     /**
-     * Evaluate all nodes of this path except for the last. The last node needs
-     * to be a {@link PropertyNode}. The represented property will be set to the
-     * specified value
+     * Evaluate all nodes of this path except for the last
      */
-    public void set(Object target, Object value) {
+    private Object evaluateParent(Object target) {
         Object current = target;
         for (int i = 0; i < nodes.size() - 1; i++) {
             current = nodes.get(i).evaluate(current);
         }
-        getAccessedProperty().setValue(current, value);
+        return current;
+    }
+
+    /**
+     * Evaluate all nodes of this path except for the last. The last node needs
+     * to be a {@link PropertyNode}. The represented property will be set to the
+     * specified value
+     */
+    public void set(Object target, Object value) {
+        getAccessedProperty().setValue(evaluateParent(target), value);
+    }
+
+    /**
+     * Evaluate this path, reading the accessed property using
+     * {@link PropertyInfo#getInt(Object)}
+     */
+    public int getInt(Object target) {
+        return getAccessedProperty().getInt(evaluateParent(target));
+    }
+
+    /**
+     * Set the accessed property using {@link PropertyInfo#setInt(Object, int)}
+     */
+    public void setInt(Object target, int value) {
+        getAccessedProperty().setInt(evaluateParent(target), value);
+    }
+
+    /**
+     * Evaluate this path, reading the accessed property using
+     * {@link PropertyInfo#getLong(Object)}
+     */
+    public long getLong(Object target) {
+        return getAccessedProperty().getLong(evaluateParent(target));
+    }
+
+    /**
+     * Set the accessed property using
+     * {@link PropertyInfo#setLong(Object, long)}
+     */
+    public void setLong(Object target, long value) {
+        getAccessedProperty().setLong(evaluateParent(target), value);
+    }
+
+    /**
+     * Evaluate this path, reading the accessed property using
+     * {@link PropertyInfo#getDouble(Object)}
+     */
+    public double getDouble(Object target) {
+        return getAccessedProperty().getDouble(evaluateParent(target));
+    }
+
+    /**
+     * Set the accessed property using
+     * {@link PropertyInfo#setDouble(Object, double)}
+     */
+    public void setDouble(Object target, double value) {
+        getAccessedProperty().setDouble(evaluateParent(target), value);
+    }
+
+    /**
+     * Evaluate this path, reading the accessed property using
+     * {@link PropertyInfo#getBoolean(Object)}
+     */
+    public boolean getBoolean(Object target) {
+        return getAccessedProperty().getBoolean(evaluateParent(target));
+    }
+
+    /**
+     * Set the accessed property using
+     * {@link PropertyInfo#setBoolean(Object, boolean)}
+     */
+    public void setBoolean(Object target, boolean value) {
+        getAccessedProperty().setBoolean(evaluateParent(target), value);
     }
 
     /**
@@ -0,0 +1,161 @@
+package com.github.ruediste.c3java.properties;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Reads all readable properties of instances of a type into a flat array, and
+ * compares such snapshots.
+ *
+ * <p>
+ * The properties are taken from {@link PropertyUtil#getPropertyInfoMap(Class)}
+ * and sorted by name, which determines their index in the snapshots. The read
+ * handles of all properties are combined into a single {@link MethodHandle}
+ * creating the snapshot array. Snapshots are shallow, the property values are
+ * not copied. Snapshotters are immutable and can be shared between threads.
+ * Since creating a snapshotter is expensive, it should be kept, for example in
+ * a static field.
+ * </p>
+ */
+public final class PropertySnapshotter {
+
+    /**
+     * Maximum number of properties which are read by a single combined method
+     * handle. Larger types are read property by property, since method handles
+     * are limited to 255 parameters.
+     */
+    private static final int MAX_COMBINED = 200;
+
+    private static final MethodType SNAPSHOT_TYPE = MethodType.methodType(Object[].class, Object.class);
+
+    private final Class<?> type;
+    private final PropertyInfo[] properties;
+    private final List<String> propertyNames;
+    private final Map<String, Integer> indexes;
+
+    /**
+     * handle of type {@link #SNAPSHOT_TYPE} reading all properties, null if
+     * the properties are read one by one using {@link #readers}
+     */
+    private final MethodHandle snapshot;
+    private final MethodHandle[] readers;
+
+    private PropertySnapshotter(Class<?> type, PropertyInfo[] properties) {
+        this.type = type;
+        this.properties = properties;
+        List<String> names = new ArrayList<>();
+        Map<String, Integer> indexes = new HashMap<>();
+        readers = new MethodHandle[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            names.add(properties[i].getName());
+            indexes.put(properties[i].getName(), i);
+            readers[i] = properties[i].getReadHandle();
+        }
+        propertyNames = Collections.unmodifiableList(names);
+        this.indexes = PropertyMap.copyOf(indexes);
+        snapshot = properties.length <= MAX_COMBINED ? combine(readers) : null;
+    }
+
+    /**
+     * Combine the readers into a handle creating an array containing all
+     * property values
+     */
+    private static MethodHandle combine(MethodHandle[] readers) {
+        // (Object, ..., Object)Object[]
+        MethodHandle collector = MethodHandles.identity(Object[].class).asCollector(Object[].class, readers.length);
+        // (target, ..., target)Object[]
+        MethodHandle filtered = MethodHandles.filterArguments(collector, 0, readers);
+        return MethodHandles.permuteArguments(filtered, SNAPSHOT_TYPE, new int[readers.length]);
+    }
+
+    /**
+     * Create a snapshotter for the given type
+     */
+    public static PropertySnapshotter of(Class<?> type) {
+        List<PropertyInfo> properties = new ArrayList<>();
+        for (PropertyInfo property : new TreeMap<>(PropertyUtil.getPropertyInfoMap(type)).values()) {
+            if (property.isReadable())
+                properties.add(property);
+        }
+        return new PropertySnapshotter(type, properties.toArray(new PropertyInfo[properties.size()]));
+    }
+
+    /**
+     * Read all properties of the target into a new array. The value of a
+     * property is stored at the {@link #indexOf(String) index} of the
+     * property.
+     */
+    public Object[] snapshot(Object target) {
+        try {
+            if (snapshot != null)
+                return (Object[]) snapshot.invokeExact(target);
+            Object[] result = new Object[readers.length];
+            for (int i = 0; i < readers.length; i++)
+                result[i] = (Object) readers[i].invokeExact(target);
+            return result;
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException("Error while taking snapshot of " + target, t);
+        }
+    }
+
+    /**
+     * Return the indexes of the properties whose values differ between the
+     * two snapshots, in ascending order. Values are compared using
+     * {@link Objects#equals(Object, Object)}.
+     */
+    public int[] diff(Object[] a, Object[] b) {
+        if (a.length != properties.length || b.length != properties.length)
+            throw new IllegalArgumentException("snapshots do not match " + this);
+        int[] changed = new int[properties.length];
+        int count = 0;
+        for (int i = 0; i < properties.length; i++) {
+            if (!Objects.equals(a[i], b[i]))
+                changed[count++] = i;
+        }
+        return count == changed.length ? changed : Arrays.copyOf(changed, count);
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * The names of the properties, in index order
+     */
+    public List<String> getPropertyNames() {
+        return propertyNames;
+    }
+
+    public PropertyInfo getProperty(int index) {
+        return properties[index];
+    }
+
+    /**
+     * Return the index of the property with the given name, or -1 if there is
+     * no such readable property
+     */
+    public int indexOf(String name) {
+        Integer index = indexes.get(name);
+        return index == null ? -1 : index;
+    }
+
+    public int size() {
+        return properties.length;
+    }
+
+    @Override
+    public String toString() {
+        return "PropertySnapshotter [" + type.getName() + ", " + propertyNames + "]";
+    }
+}
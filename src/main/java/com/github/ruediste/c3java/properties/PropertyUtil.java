@@ -10,17 +10,25 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
 import java.util.function.Consumer;
-
+import java.util.function.Predicate;
+
+import com.github.ruediste.c3java.cache.ClassCache;
+import com.github.ruediste.c3java.cache.ClassCaches;
+import com.github.ruediste.c3java.index.ReflectionIndex;
+import com.github.ruediste.c3java.index.ReflectionIndex.PropertyEntry;
+import com.github.ruediste.c3java.instrumentation.Instrumentation;
+import com.github.ruediste.c3java.instrumentation.Instrumentations;
 import com.github.ruediste.c3java.invocationRecording.MethodInvocation;
 import com.github.ruediste.c3java.invocationRecording.MethodInvocationRecorder;
+import com.github.ruediste.c3java.jfr.JfrEvents;
 import com.github.ruediste.c3java.linearization.JavaC3;
+import com.github.ruediste.c3java.method.MethodUtil;
 import com.github.ruediste.c3java.properties.PropertyAccessor.AccessorType;
 import com.github.ruediste.c3java.properties.PropertyPath.PropertyPathNode;
 import com.google.common.base.CaseFormat;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Lists;
 import com.google.common.reflect.TypeToken;
 
 public class PropertyUtil {
@@ -65,9 +73,24 @@ public class PropertyUtil {
     }
 
     /**
-     * Return all properties which are directly declared on the provided type
+     * Return all properties which are directly declared on the provided type.
+     * If the type is contained in the {@link ReflectionIndex}, the declared
+     * members are not scanned.
      */
     static public Map<String, PropertyDeclaration> getPropertyDeclarations(Class<?> type) {
+        Map<String, PropertyDeclaration> result = getIndexedPropertyDeclarations(type);
+        if (result != null)
+            return result;
+        Instrumentation instrumentation = Instrumentations.get();
+        if (instrumentation == Instrumentations.NOOP)
+            return scanPropertyDeclarations(type);
+        long start = System.nanoTime();
+        result = scanPropertyDeclarations(type);
+        instrumentation.propertyDeclarationsScanned(type, System.nanoTime() - start);
+        return result;
+    }
+
+    private static Map<String, PropertyDeclaration> scanPropertyDeclarations(Class<?> type) {
         Map<String, PropertyDeclaration> result = new HashMap<>();
         HashSet<String> failingProperties = new HashSet<>();
 
@@ -105,6 +128,57 @@ public class PropertyUtil {
         return result;
     }
 
+    /**
+     * Return the property declarations of the given type from the
+     * {@link ReflectionIndex}, or null if the type is not indexed or the index
+     * does not match the loaded class.
+     */
+    private static Map<String, PropertyDeclaration> getIndexedPropertyDeclarations(Class<?> type) {
+        ReflectionIndex index = ReflectionIndex.get(type);
+        List<PropertyEntry> entries = index.getProperties(type.getName());
+        if (entries == null || !index.isCurrent(type))
+            return null;
+        Map<String, PropertyDeclaration> result = new HashMap<>();
+        try {
+            for (PropertyEntry entry : entries) {
+                PropertyDeclaration property = new PropertyDeclaration(entry.getName(), type);
+                if (entry.getGetter() != null)
+                    property = property.withAccessor(getIndexedAccessor(type.getDeclaredMethod(entry.getGetter())));
+                if (entry.getSetter() != null)
+                    property = property.withAccessor(getIndexedAccessor(type.getDeclaredMethod(entry.getSetter(),
+                            loadClass(entry.getSetterParameterType(), type.getClassLoader()))));
+                if (entry.getBackingField() != null)
+                    property = property.withBackingField(type.getDeclaredField(entry.getBackingField()));
+                result.put(entry.getName(), property);
+            }
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            return null;
+        }
+        return result;
+    }
+
+    private static PropertyAccessor getIndexedAccessor(Method method) {
+        PropertyAccessor accessor = getAccessor(method);
+        if (accessor == null)
+            throw new RuntimeException(method + " is no property accessor");
+        return accessor;
+    }
+
+    private static final Map<String, Class<?>> primitiveTypes = new HashMap<>();
+    static {
+        for (Class<?> cls : new Class<?>[] { boolean.class, byte.class, char.class, short.class, int.class,
+                long.class, float.class, double.class }) {
+            primitiveTypes.put(cls.getName(), cls);
+        }
+    }
+
+    private static Class<?> loadClass(String name, ClassLoader classLoader) throws ClassNotFoundException {
+        Class<?> primitive = primitiveTypes.get(name);
+        if (primitive != null)
+            return primitive;
+        return Class.forName(name, false, classLoader);
+    }
+
     static public PropertyInfo getPropertyInfo(Class<?> type, String name) {
         return tryGetPropertyInfo(type, name)
                 .orElseThrow(() -> new RuntimeException("no property named " + name + " found on class " + type));
@@ -114,11 +188,12 @@ public class PropertyUtil {
         return Optional.ofNullable(getPropertyInfoMap(type).get(name));
     }
 
-    private static Map<Class<?>, Map<String, PropertyInfo>> propertyInfoMapCache = new ConcurrentHashMap<>();
+    private static final ClassCache<Map<String, PropertyInfo>> propertyInfoMapCache = ClassCaches
+            .create("propertyInfoMap");
 
     /**
      * Return a map containing all property infos for a type. Inheritance is
-     * taken into account.
+     * taken into account. The map is immutable.
      */
     static public Map<String, PropertyInfo> getPropertyInfoMap(Class<?> type) {
         if (type == null || type == Object.class)
@@ -126,12 +201,18 @@ public class PropertyUtil {
 
         // no synchronization required. In the worst case, a map will
         // be calculated multiple times
-        Map<String, PropertyInfo> result = propertyInfoMapCache.get(type);
-        if (result == null) {
-            result = calculatePropertyInfoMap(type);
-            propertyInfoMapCache.put(type, result);
+        Object event = JfrEvents.beginPropertyInfoMap();
+        if (event == null)
+            return propertyInfoMapCache.get(type, PropertyUtil::calculatePropertyInfoMap);
+        boolean[] calculated = new boolean[1];
+        try {
+            return propertyInfoMapCache.get(type, t -> {
+                calculated[0] = true;
+                return calculatePropertyInfoMap(t);
+            });
+        } finally {
+            JfrEvents.commit(event, type, !calculated[0]);
         }
-        return result;
     }
 
     private static Map<String, PropertyInfo> calculatePropertyInfoMap(Class<?> type) {
@@ -151,7 +232,7 @@ public class PropertyUtil {
                 }
             }
 
-            return result;
+            return PropertyMap.copyOf(result);
         } catch (Throwable t) {
             throw new RuntimeException("Error while creating property info map for " + type, t);
         }
@@ -161,22 +242,23 @@ public class PropertyUtil {
         return getPropertyIntroductionMap(type).get(name);
     }
 
-    private static Map<Class<?>, Map<String, PropertyDeclaration>> propertyIntroductionMapCache = new ConcurrentHashMap<>();
+    private static final ClassCache<Map<String, PropertyDeclaration>> propertyIntroductionMapCache = ClassCaches
+            .create("propertyIntroductionMap");
 
     /**
      * Return the {@link PropertyDeclaration}s of the given type. For each
      * property, the property declaration which introduced the property is
-     * returned.
+     * returned. The map is immutable.
      */
     static public Map<String, PropertyDeclaration> getPropertyIntroductionMap(Class<?> type) {
         Preconditions.checkNotNull(type, "type is null");
-        return propertyIntroductionMapCache.computeIfAbsent(type, PropertyUtil::calculatePropertyIntroductionMap);
+        return propertyIntroductionMapCache.get(type, PropertyUtil::calculatePropertyIntroductionMap);
     }
 
     static private Map<String, PropertyDeclaration> calculatePropertyIntroductionMap(Class<?> type) {
         Map<String, PropertyDeclaration> result = new HashMap<>();
 
-        for (Class<?> cls : Lists.reverse(Lists.newArrayList(JavaC3.allSuperclasses(type)))) {
+        for (Class<?> cls : JavaC3.allSuperclassesReverse(type)) {
             if (Object.class.equals(cls)) {
                 continue;
             }
@@ -185,7 +267,7 @@ public class PropertyUtil {
             }
         }
 
-        return result;
+        return PropertyMap.copyOf(result);
     }
 
     static public PropertyPath toPath(MethodInvocationRecorder recorder) {
@@ -262,9 +344,63 @@ public class PropertyUtil {
         return info;
     }
 
+    /**
+     * Return the types with a cached property info map or property
+     * introduction map. The returned set is a copy.
+     */
+    static public Set<Class<?>> getCachedTypes() {
+        Set<Class<?>> result = propertyInfoMapCache.keys();
+        result.addAll(propertyIntroductionMapCache.keys());
+        return result;
+    }
+
+    private static volatile PropertyAccessStrategy accessStrategy = PropertyAccessStrategy.GENERATED;
+
+    /**
+     * The strategy used by {@link PropertyInfo#getValueAccessor()} and
+     * {@link PropertyDeclaration#getValueAccessor()}
+     */
+    static public PropertyAccessStrategy getAccessStrategy() {
+        return accessStrategy;
+    }
+
+    /**
+     * Set the default {@link PropertyAccessStrategy} and clear the cache.
+     * Property infos obtained before keep using the accessor they already
+     * created.
+     */
+    static public void setAccessStrategy(PropertyAccessStrategy strategy) {
+        accessStrategy = Preconditions.checkNotNull(strategy, "strategy is null");
+        clearCache();
+    }
+
     static public void clearCache() {
-        propertyInfoMapCache.clear();
-        propertyIntroductionMapCache.clear();
+        propertyInfoMapCache.invalidateAll();
+        propertyIntroductionMapCache.invalidateAll();
+    }
+
+    /**
+     * Remove the cached information about the given type and all its subtypes.
+     * The linearizations cached by {@link JavaC3} are invalidated as well.
+     * Since {@link MethodUtil} reads the linearizations from {@link JavaC3}
+     * without caching anything itself, it is covered too.
+     */
+    static public void invalidate(Class<?> type) {
+        propertyInfoMapCache.invalidateIf(type::isAssignableFrom);
+        propertyIntroductionMapCache.invalidateIf(type::isAssignableFrom);
+        JavaC3.invalidate(type);
+    }
+
+    /**
+     * Remove the cached information about all types loaded by the given class
+     * loader and all their subtypes. The linearizations cached by
+     * {@link JavaC3} are invalidated as well.
+     */
+    static public void invalidate(ClassLoader classLoader) {
+        Predicate<Class<?>> dependsOnClassLoader = cls -> JavaC3.dependsOn(cls, classLoader);
+        propertyInfoMapCache.invalidateIf(dependsOnClassLoader);
+        propertyIntroductionMapCache.invalidateIf(dependsOnClassLoader);
+        JavaC3.invalidate(classLoader);
     }
 
 }
@@ -0,0 +1,60 @@
+package com.github.ruediste.c3java.properties;
+
+/**
+ * Reads and writes the value of a property. Obtained from
+ * {@link PropertyInfo#getValueAccessor()} or
+ * {@link PropertyDeclaration#getValueAccessor()}.
+ *
+ * <p>
+ * Exceptions thrown by the getter or setter are propagated without wrapping,
+ * with every {@link PropertyAccessStrategy}. A target or value of the wrong
+ * type results in a {@link ClassCastException}, or in a
+ * {@link NullPointerException} if it is null. Reading a property which is not
+ * readable or writing a property which is not writeable results in an
+ * {@link UnsupportedOperationException}.
+ * </p>
+ *
+ * <p>
+ * The primitive methods require the property type to be the primitive type or
+ * its wrapper. The accessors created for properties of a primitive type
+ * implement them without boxing.
+ * </p>
+ */
+public interface PropertyValueAccessor {
+
+    Object getValue(Object target) throws Throwable;
+
+    void setValue(Object target, Object value) throws Throwable;
+
+    default int getInt(Object target) throws Throwable {
+        return (Integer) getValue(target);
+    }
+
+    default void setInt(Object target, int value) throws Throwable {
+        setValue(target, value);
+    }
+
+    default long getLong(Object target) throws Throwable {
+        return (Long) getValue(target);
+    }
+
+    default void setLong(Object target, long value) throws Throwable {
+        setValue(target, value);
+    }
+
+    default double getDouble(Object target) throws Throwable {
+        return (Double) getValue(target);
+    }
+
+    default void setDouble(Object target, double value) throws Throwable {
+        setValue(target, value);
+    }
+
+    default boolean getBoolean(Object target) throws Throwable {
+        return (Boolean) getValue(target);
+    }
+
+    default void setBoolean(Object target, boolean value) throws Throwable {
+        setValue(target, value);
+    }
+}
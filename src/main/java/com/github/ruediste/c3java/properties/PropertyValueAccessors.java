@@ -0,0 +1,598 @@
+package com.github.ruediste.c3java.properties;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.Primitives;
+
+/**
+ * Creates the {@link PropertyValueAccessor}s of properties.
+ *
+ * <p>
+ * Depending on the {@link PropertyAccessStrategy}, public getters and setters
+ * of public classes are called through classes generated by the
+ * {@link LambdaMetafactory}, which the JIT compiler can inline like a direct
+ * call. Other accessor methods and backing fields are accessed through
+ * {@link MethodHandle}s. If a member cannot be unreflected, the handle falls
+ * back to reflection.
+ * </p>
+ *
+ * <p>
+ * All strategies fail the same way. Exceptions thrown by a getter or setter
+ * are propagated without an {@link InvocationTargetException}. A target or
+ * value of the wrong type results in a {@link ClassCastException}, or in a
+ * {@link NullPointerException} if it is null.
+ * </p>
+ */
+final class PropertyValueAccessors {
+
+    private PropertyValueAccessors() {
+    }
+
+    interface Reader {
+        Object get(Object target) throws Throwable;
+    }
+
+    interface Writer {
+        void set(Object target, Object value) throws Throwable;
+    }
+
+    interface IntReader {
+        int get(Object target) throws Throwable;
+    }
+
+    interface IntWriter {
+        void set(Object target, int value) throws Throwable;
+    }
+
+    interface LongReader {
+        long get(Object target) throws Throwable;
+    }
+
+    interface LongWriter {
+        void set(Object target, long value) throws Throwable;
+    }
+
+    interface DoubleReader {
+        double get(Object target) throws Throwable;
+    }
+
+    interface DoubleWriter {
+        void set(Object target, double value) throws Throwable;
+    }
+
+    interface BooleanReader {
+        boolean get(Object target) throws Throwable;
+    }
+
+    interface BooleanWriter {
+        void set(Object target, boolean value) throws Throwable;
+    }
+
+    private static final Map<Class<?>, Class<?>> PRIMITIVE_READERS = ImmutableMap.of(int.class, IntReader.class,
+            long.class, LongReader.class, double.class, DoubleReader.class, boolean.class, BooleanReader.class);
+
+    private static final Map<Class<?>, Class<?>> PRIMITIVE_WRITERS = ImmutableMap.of(int.class, IntWriter.class,
+            long.class, LongWriter.class, double.class, DoubleWriter.class, boolean.class, BooleanWriter.class);
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType READER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType WRITER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final MethodHandle METHOD_INVOKE;
+    private static final MethodHandle FIELD_GET;
+    private static final MethodHandle FIELD_SET;
+
+    static {
+        try {
+            METHOD_INVOKE = LOOKUP.findStatic(PropertyValueAccessors.class, "invoke",
+                    MethodType.methodType(Object.class, Method.class, Object.class, Object[].class));
+            FIELD_GET = LOOKUP.findStatic(PropertyValueAccessors.class, "get",
+                    MethodType.methodType(Object.class, Field.class, Object.class));
+            FIELD_SET = LOOKUP.findStatic(PropertyValueAccessors.class, "set",
+                    MethodType.methodType(void.class, Field.class, Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Invoke the method using reflection. Exceptions thrown by the method are
+     * rethrown as they are, and arguments of the wrong type result in the same
+     * exceptions as with method handles.
+     */
+    private static Object invoke(Method method, Object target, Object[] arguments) throws Throwable {
+        try {
+            return method.invoke(target, arguments);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        } catch (IllegalArgumentException e) {
+            throw mismatch(e, arguments.length == 0 ? target : arguments[0]);
+        }
+    }
+
+    private static Object get(Field field, Object target) throws IllegalAccessException {
+        try {
+            return field.get(target);
+        } catch (IllegalArgumentException e) {
+            throw mismatch(e, target);
+        }
+    }
+
+    private static void set(Field field, Object target, Object value) throws IllegalAccessException {
+        try {
+            field.set(target, value);
+        } catch (IllegalArgumentException e) {
+            throw mismatch(e, value);
+        }
+    }
+
+    /**
+     * Translate the exception thrown by reflection if the target or value does
+     * not match the member to the exception thrown by a method handle
+     */
+    private static RuntimeException mismatch(IllegalArgumentException e, Object value) {
+        RuntimeException result = value == null ? new NullPointerException(e.getMessage())
+                : new ClassCastException(e.getMessage());
+        result.initCause(e);
+        return result;
+    }
+
+    private static final class Accessor implements PropertyValueAccessor {
+        private final Reader reader;
+        private final Writer writer;
+
+        /**
+         * one of the primitive readers, or null
+         */
+        private final Object primitiveReader;
+
+        /**
+         * one of the primitive writers, or null
+         */
+        private final Object primitiveWriter;
+
+        Accessor(Reader reader, Writer writer, Object primitiveReader, Object primitiveWriter) {
+            this.reader = reader;
+            this.writer = writer;
+            this.primitiveReader = primitiveReader;
+            this.primitiveWriter = primitiveWriter;
+        }
+
+        @Override
+        public Object getValue(Object target) throws Throwable {
+            if (reader == null)
+                throw new UnsupportedOperationException("property is not readable");
+            return reader.get(target);
+        }
+
+        @Override
+        public void setValue(Object target, Object value) throws Throwable {
+            if (writer == null)
+                throw new UnsupportedOperationException("property is not writeable");
+            writer.set(target, value);
+        }
+
+        @Override
+        public int getInt(Object target) throws Throwable {
+            if (primitiveReader instanceof IntReader)
+                return ((IntReader) primitiveReader).get(target);
+            return PropertyValueAccessor.super.getInt(target);
+        }
+
+        @Override
+        public void setInt(Object target, int value) throws Throwable {
+            if (primitiveWriter instanceof IntWriter)
+                ((IntWriter) primitiveWriter).set(target, value);
+            else
+                PropertyValueAccessor.super.setInt(target, value);
+        }
+
+        @Override
+        public long getLong(Object target) throws Throwable {
+            if (primitiveReader instanceof LongReader)
+                return ((LongReader) primitiveReader).get(target);
+            return PropertyValueAccessor.super.getLong(target);
+        }
+
+        @Override
+        public void setLong(Object target, long value) throws Throwable {
+            if (primitiveWriter instanceof LongWriter)
+                ((LongWriter) primitiveWriter).set(target, value);
+            else
+                PropertyValueAccessor.super.setLong(target, value);
+        }
+
+        @Override
+        public double getDouble(Object target) throws Throwable {
+            if (primitiveReader instanceof DoubleReader)
+                return ((DoubleReader) primitiveReader).get(target);
+            return PropertyValueAccessor.super.getDouble(target);
+        }
+
+        @Override
+        public void setDouble(Object target, double value) throws Throwable {
+            if (primitiveWriter instanceof DoubleWriter)
+                ((DoubleWriter) primitiveWriter).set(target, value);
+            else
+                PropertyValueAccessor.super.setDouble(target, value);
+        }
+
+        @Override
+        public boolean getBoolean(Object target) throws Throwable {
+            if (primitiveReader instanceof BooleanReader)
+                return ((BooleanReader) primitiveReader).get(target);
+            return PropertyValueAccessor.super.getBoolean(target);
+        }
+
+        @Override
+        public void setBoolean(Object target, boolean value) throws Throwable {
+            if (primitiveWriter instanceof BooleanWriter)
+                ((BooleanWriter) primitiveWriter).set(target, value);
+            else
+                PropertyValueAccessor.super.setBoolean(target, value);
+        }
+    }
+
+    /**
+     * Reader or writer of a single member, and the matching primitive reader
+     * or writer, if any
+     */
+    private static final class Part {
+        final Object boxed;
+        final Object primitive;
+
+        Part(Object boxed, Object primitive) {
+            this.boxed = boxed;
+            this.primitive = primitive;
+        }
+    }
+
+    /**
+     * The parts created so far, per declaring class of the member. The key
+     * consists of the member, the strategy and whether the part writes.
+     */
+    private static final ClassValue<ConcurrentMap<List<Object>, Part>> parts = new ClassValue<ConcurrentMap<List<Object>, Part>>() {
+        @Override
+        protected ConcurrentMap<List<Object>, Part> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * Create an accessor using the getter or the backing field for reading
+     * and the setter or the backing field for writing. The readers and
+     * writers of each member are created once per strategy and shared by all
+     * accessors.
+     */
+    static PropertyValueAccessor create(PropertyAccessStrategy strategy, Method getter, Method setter,
+            Field backingField) {
+        Part read = null;
+        if (getter != null)
+            read = part(strategy, getter, false);
+        else if (backingField != null)
+            read = part(strategy, backingField, false);
+        Part write = null;
+        if (setter != null)
+            write = part(strategy, setter, true);
+        else if (backingField != null)
+            write = part(strategy, backingField, true);
+        return new Accessor(read == null ? null : (Reader) read.boxed, write == null ? null : (Writer) write.boxed,
+                read == null ? null : read.primitive, write == null ? null : write.primitive);
+    }
+
+    private static Part part(PropertyAccessStrategy strategy, Member member, boolean write) {
+        return parts.get(member.getDeclaringClass()).computeIfAbsent(ImmutableList.of(member, strategy, write),
+                key -> write ? createWritePart(strategy, member) : createReadPart(strategy, member));
+    }
+
+    /**
+     * If the member has one of the supported primitive types, only the
+     * primitive reader is bound to the member. The boxing reader delegates
+     * to it.
+     */
+    private static Part createReadPart(PropertyAccessStrategy strategy, Member member) {
+        if (member instanceof Method) {
+            Method getter = (Method) member;
+            Object primitive = primitiveReader(strategy, getter);
+            return new Part(primitive == null ? reader(strategy, getter) : boxingReader(primitive), primitive);
+        }
+        Field backingField = (Field) member;
+        Object primitive = primitiveReader(strategy, backingField);
+        return new Part(primitive == null ? reader(strategy, backingField) : boxingReader(primitive), primitive);
+    }
+
+    private static Part createWritePart(PropertyAccessStrategy strategy, Member member) {
+        if (member instanceof Method) {
+            Method setter = (Method) member;
+            Object primitive = primitiveWriter(strategy, setter);
+            return new Part(primitive == null ? writer(strategy, setter) : unboxingWriter(primitive), primitive);
+        }
+        Field backingField = (Field) member;
+        Object primitive = primitiveWriter(strategy, backingField);
+        return new Part(primitive == null ? writer(strategy, backingField) : unboxingWriter(primitive), primitive);
+    }
+
+    private static Reader boxingReader(Object primitiveReader) {
+        if (primitiveReader instanceof IntReader) {
+            IntReader reader = (IntReader) primitiveReader;
+            return target -> reader.get(target);
+        }
+        if (primitiveReader instanceof LongReader) {
+            LongReader reader = (LongReader) primitiveReader;
+            return target -> reader.get(target);
+        }
+        if (primitiveReader instanceof DoubleReader) {
+            DoubleReader reader = (DoubleReader) primitiveReader;
+            return target -> reader.get(target);
+        }
+        BooleanReader reader = (BooleanReader) primitiveReader;
+        return target -> reader.get(target);
+    }
+
+    /**
+     * Values of the wrong type result in a {@link ClassCastException}, null
+     * values in a {@link NullPointerException}.
+     */
+    private static Writer unboxingWriter(Object primitiveWriter) {
+        if (primitiveWriter instanceof IntWriter) {
+            IntWriter writer = (IntWriter) primitiveWriter;
+            return (target, value) -> writer.set(target, (Integer) value);
+        }
+        if (primitiveWriter instanceof LongWriter) {
+            LongWriter writer = (LongWriter) primitiveWriter;
+            return (target, value) -> writer.set(target, (Long) value);
+        }
+        if (primitiveWriter instanceof DoubleWriter) {
+            DoubleWriter writer = (DoubleWriter) primitiveWriter;
+            return (target, value) -> writer.set(target, (Double) value);
+        }
+        BooleanWriter writer = (BooleanWriter) primitiveWriter;
+        return (target, value) -> writer.set(target, (Boolean) value);
+    }
+
+    /**
+     * Return a primitive reader calling the getter, or null if the getter does
+     * not return one of the supported primitive types or cannot be bound
+     */
+    static Object primitiveReader(PropertyAccessStrategy strategy, Method getter) {
+        Class<?> type = getter.getReturnType();
+        Class<?> readerType = PRIMITIVE_READERS.get(type);
+        if (readerType == null || strategy == PropertyAccessStrategy.REFLECTION)
+            return null;
+        MethodType samType = MethodType.methodType(type, Object.class);
+        try {
+            if (strategy == PropertyAccessStrategy.GENERATED && canGenerate(getter, type))
+                return LambdaMetafactory.metafactory(LOOKUP, "get", MethodType.methodType(readerType), samType,
+                        LOOKUP.unreflect(getter), MethodType.methodType(type, getter.getDeclaringClass()))
+                        .getTarget().invoke();
+            return primitiveReader(LOOKUP.unreflect(getter).asType(samType));
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    static Object primitiveReader(PropertyAccessStrategy strategy, Field backingField) {
+        Class<?> type = backingField.getType();
+        if (!PRIMITIVE_READERS.containsKey(type) || strategy == PropertyAccessStrategy.REFLECTION)
+            return null;
+        try {
+            return primitiveReader(
+                    LOOKUP.unreflectGetter(backingField).asType(MethodType.methodType(type, Object.class)));
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    private static Object primitiveReader(MethodHandle handle) {
+        Class<?> type = handle.type().returnType();
+        if (type == int.class)
+            return (IntReader) target -> (int) handle.invokeExact(target);
+        if (type == long.class)
+            return (LongReader) target -> (long) handle.invokeExact(target);
+        if (type == double.class)
+            return (DoubleReader) target -> (double) handle.invokeExact(target);
+        return (BooleanReader) target -> (boolean) handle.invokeExact(target);
+    }
+
+    /**
+     * Return a primitive writer calling the setter, or null if the setter does
+     * not take one of the supported primitive types or cannot be bound
+     */
+    static Object primitiveWriter(PropertyAccessStrategy strategy, Method setter) {
+        Class<?> type = setter.getParameterTypes()[0];
+        Class<?> writerType = PRIMITIVE_WRITERS.get(type);
+        if (writerType == null || strategy == PropertyAccessStrategy.REFLECTION)
+            return null;
+        MethodType samType = MethodType.methodType(void.class, Object.class, type);
+        try {
+            if (strategy == PropertyAccessStrategy.GENERATED && canGenerate(setter, type))
+                return LambdaMetafactory.metafactory(LOOKUP, "set", MethodType.methodType(writerType), samType,
+                        LOOKUP.unreflect(setter), MethodType.methodType(void.class, setter.getDeclaringClass(), type))
+                        .getTarget().invoke();
+            return primitiveWriter(LOOKUP.unreflect(setter).asType(samType));
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    static Object primitiveWriter(PropertyAccessStrategy strategy, Field backingField) {
+        Class<?> type = backingField.getType();
+        if (!PRIMITIVE_WRITERS.containsKey(type) || strategy == PropertyAccessStrategy.REFLECTION)
+            return null;
+        try {
+            return primitiveWriter(LOOKUP.unreflectSetter(backingField)
+                    .asType(MethodType.methodType(void.class, Object.class, type)));
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    private static Object primitiveWriter(MethodHandle handle) {
+        Class<?> type = handle.type().parameterType(1);
+        if (type == int.class)
+            return (IntWriter) (target, value) -> {
+                handle.invokeExact(target, value);
+            };
+        if (type == long.class)
+            return (LongWriter) (target, value) -> {
+                handle.invokeExact(target, value);
+            };
+        if (type == double.class)
+            return (DoubleWriter) (target, value) -> {
+                handle.invokeExact(target, value);
+            };
+        return (BooleanWriter) (target, value) -> {
+            handle.invokeExact(target, value);
+        };
+    }
+
+    static Reader reader(PropertyAccessStrategy strategy, Method getter) {
+        if (strategy == PropertyAccessStrategy.REFLECTION)
+            return target -> invoke(getter, target, new Object[0]);
+        if (strategy == PropertyAccessStrategy.GENERATED && canGenerate(getter, getter.getReturnType())) {
+            try {
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "get", MethodType.methodType(Reader.class),
+                        READER_TYPE, LOOKUP.unreflect(getter), MethodType.methodType(
+                                Primitives.wrap(getter.getReturnType()), getter.getDeclaringClass()));
+                return (Reader) site.getTarget().invoke();
+            } catch (Throwable t) {
+                // fall back to a method handle
+            }
+        }
+        MethodHandle handle = readHandle(getter, Object.class);
+        return target -> (Object) handle.invokeExact(target);
+    }
+
+    static Reader reader(PropertyAccessStrategy strategy, Field backingField) {
+        if (strategy == PropertyAccessStrategy.REFLECTION)
+            return target -> get(backingField, target);
+        MethodHandle handle = readHandle(backingField, Object.class);
+        return target -> (Object) handle.invokeExact(target);
+    }
+
+    static Writer writer(PropertyAccessStrategy strategy, Method setter) {
+        if (strategy == PropertyAccessStrategy.REFLECTION)
+            return (target, value) -> invoke(setter, target, new Object[] { value });
+        Class<?> parameterType = setter.getParameterTypes()[0];
+        if (strategy == PropertyAccessStrategy.GENERATED && canGenerate(setter, parameterType)) {
+            try {
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "set", MethodType.methodType(Writer.class),
+                        WRITER_TYPE, LOOKUP.unreflect(setter), MethodType.methodType(void.class,
+                                setter.getDeclaringClass(), Primitives.wrap(parameterType)));
+                return (Writer) site.getTarget().invoke();
+            } catch (Throwable t) {
+                // fall back to a method handle
+            }
+        }
+        MethodHandle handle = writeHandle(setter, Object.class);
+        return (target, value) -> {
+            handle.invokeExact(target, value);
+        };
+    }
+
+    static Writer writer(PropertyAccessStrategy strategy, Field backingField) {
+        if (strategy == PropertyAccessStrategy.REFLECTION)
+            return (target, value) -> set(backingField, target, value);
+        MethodHandle handle = writeHandle(backingField, Object.class);
+        return (target, value) -> {
+            handle.invokeExact(target, value);
+        };
+    }
+
+    /**
+     * Return a handle of type {@code (Object)valueType} calling the getter.
+     * If the getter cannot be unreflected, the handle calls it using
+     * reflection.
+     */
+    static MethodHandle readHandle(Method getter, Class<?> valueType) {
+        MethodType type = MethodType.methodType(valueType, Object.class);
+        try {
+            return LOOKUP.unreflect(getter).asType(type);
+        } catch (IllegalAccessException | RuntimeException e) {
+            return MethodHandles.insertArguments(METHOD_INVOKE.bindTo(getter), 1, (Object) new Object[0])
+                    .asType(type);
+        }
+    }
+
+    /**
+     * Return a handle of type {@code (Object)valueType} reading the field. If
+     * the field cannot be unreflected, the handle reads it using reflection.
+     */
+    static MethodHandle readHandle(Field backingField, Class<?> valueType) {
+        MethodType type = MethodType.methodType(valueType, Object.class);
+        try {
+            return LOOKUP.unreflectGetter(backingField).asType(type);
+        } catch (IllegalAccessException | RuntimeException e) {
+            return FIELD_GET.bindTo(backingField).asType(type);
+        }
+    }
+
+    /**
+     * Return a handle of type {@code (Object,valueType)void} calling the
+     * setter. If the setter cannot be unreflected, the handle calls it using
+     * reflection.
+     */
+    static MethodHandle writeHandle(Method setter, Class<?> valueType) {
+        MethodType type = MethodType.methodType(void.class, Object.class, valueType);
+        try {
+            return LOOKUP.unreflect(setter).asType(type);
+        } catch (IllegalAccessException | RuntimeException e) {
+            return METHOD_INVOKE.bindTo(setter).asCollector(Object[].class, 1).asType(type);
+        }
+    }
+
+    /**
+     * Return a handle of type {@code (Object,valueType)void} writing the
+     * field. If the field cannot be unreflected, the handle writes it using
+     * reflection.
+     */
+    static MethodHandle writeHandle(Field backingField, Class<?> valueType) {
+        MethodType type = MethodType.methodType(void.class, Object.class, valueType);
+        try {
+            return LOOKUP.unreflectSetter(backingField).asType(type);
+        } catch (IllegalAccessException | RuntimeException e) {
+            return FIELD_SET.bindTo(backingField).asType(type);
+        }
+    }
+
+    /**
+     * Generated classes are defined in the class loader of this class. They
+     * can only call public, non-static members of public classes visible from
+     * this loader.
+     */
+    private static boolean canGenerate(Member member, Class<?> valueType) {
+        Class<?> declaringClass = member.getDeclaringClass();
+        return Modifier.isPublic(member.getModifiers()) && !Modifier.isStatic(member.getModifiers())
+                && Modifier.isPublic(declaringClass.getModifiers()) && isVisible(declaringClass)
+                && isVisible(valueType);
+    }
+
+    private static boolean isVisible(Class<?> type) {
+        while (type.isArray())
+            type = type.getComponentType();
+        ClassLoader loader = type.getClassLoader();
+        if (loader == null)
+            return true;
+        for (ClassLoader own = PropertyValueAccessors.class.getClassLoader(); own != null; own = own.getParent()) {
+            if (own == loader)
+                return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,137 @@
+package com.github.ruediste.c3java.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.github.ruediste.c3java.properties.PropertyUtil;
+import com.google.common.cache.CacheStats;
+
+public class ClassCacheTest {
+
+    private void checkBasics(ClassCache<String> cache) {
+        assertEquals("List", cache.get(List.class, Class::getSimpleName));
+        assertEquals("List", cache.get(List.class, x -> "other"));
+        assertEquals("Set", cache.get(Set.class, Class::getSimpleName));
+        assertEquals("List", cache.getIfPresent(List.class));
+        assertNull(cache.getIfPresent(Map.class));
+        assertEquals(new HashSet<>(Arrays.asList(List.class, Set.class)), cache.keys());
+
+        CacheStats stats = cache.stats();
+        assertEquals(2, stats.hitCount());
+        assertEquals(3, stats.missCount());
+        assertEquals(2, stats.loadSuccessCount());
+
+        cache.invalidateIf(List.class::equals);
+        assertNull(cache.getIfPresent(List.class));
+        assertEquals("Set", cache.getIfPresent(Set.class));
+        cache.invalidateAll();
+        assertEquals(Collections.emptySet(), cache.keys());
+    }
+
+    @Test
+    public void testClassValueCache() {
+        ClassCaches.setRecordStats(true);
+        try {
+            checkBasics(new ClassValueCache<>());
+        } finally {
+            ClassCaches.setRecordStats(false);
+        }
+    }
+
+    @Test
+    public void testStatsDisabled() {
+        ClassValueCache<String> cache = new ClassValueCache<>();
+        assertEquals("List", cache.get(List.class, Class::getSimpleName));
+        assertEquals("List", cache.get(List.class, Class::getSimpleName));
+        assertEquals(0, cache.stats().requestCount());
+        assertEquals(0, cache.stats().loadCount());
+    }
+
+    @Test
+    public void testGuavaCache() {
+        checkBasics(GuavaClassCache.factory().create("test"));
+        checkBasics(GuavaClassCache.factory().weakKeys().create("test"));
+        checkBasics(GuavaClassCache.factory().weakKeys().softValues().create("test"));
+    }
+
+    @Test
+    public void testLoadException() {
+        ClassValueCache<String> cache = new ClassValueCache<>();
+        ClassCaches.setRecordStats(true);
+        try {
+            cache.get(List.class, x -> {
+                throw new IllegalStateException();
+            });
+        } catch (IllegalStateException e) {
+            // expected
+        } finally {
+            ClassCaches.setRecordStats(false);
+        }
+        assertEquals(1, cache.stats().loadExceptionCount());
+
+        ClassCache<String> guava = GuavaClassCache.factory().create("test");
+        try {
+            guava.get(List.class, x -> {
+                throw new IllegalStateException();
+            });
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertEquals(1, guava.stats().loadExceptionCount());
+    }
+
+    @Test
+    public void testEviction() {
+        ClassCache<String> cache = GuavaClassCache.factory().maximumSize(2).concurrencyLevel(1).create("test");
+        cache.get(List.class, Class::getSimpleName);
+        cache.get(Set.class, Class::getSimpleName);
+        cache.get(Map.class, Class::getSimpleName);
+        assertEquals(2, cache.keys().size());
+        assertEquals(1, cache.stats().evictionCount());
+
+        cache = GuavaClassCache.factory().maximumWeight(8, (type, value) -> ((String) value).length())
+                .concurrencyLevel(1).create("test");
+        cache.get(List.class, Class::getSimpleName);
+        cache.get(Set.class, Class::getSimpleName);
+        cache.get(Map.class, Class::getSimpleName);
+        assertEquals(new HashSet<>(Arrays.asList(Set.class, Map.class)), cache.keys());
+    }
+
+    public static class Bean {
+        public int getValue() {
+            return 0;
+        }
+    }
+
+    @Test
+    public void testSetFactory() {
+        PropertyUtil.getPropertyInfoMap(Bean.class);
+        try {
+            ClassCaches.setFactory(GuavaClassCache.factory().maximumSize(100));
+            assertEquals(0, ClassCaches.stats().get("propertyInfoMap").requestCount());
+            assertTrue(PropertyUtil.getPropertyInfoMap(Bean.class).containsKey("value"));
+            assertTrue(PropertyUtil.getPropertyInfoMap(Bean.class).containsKey("value"));
+            CacheStats stats = ClassCaches.stats().get("propertyInfoMap");
+            assertEquals(1, stats.hitCount());
+            assertEquals(1, stats.missCount());
+        } finally {
+            ClassCaches.resetFactory();
+        }
+        assertEquals(Collections.emptySet(), PropertyUtil.getCachedTypes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateName() {
+        ClassCaches.create("propertyInfoMap");
+    }
+}
@@ -0,0 +1,158 @@
+package com.github.ruediste.c3java.dispatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class DispatcherTest {
+
+    private Dispatcher<String> single = Dispatcher.<String> builder(1).register("collection", Collection.class)
+            .register("abstractCollection", AbstractCollection.class).register("set", Set.class)
+            .register("object", Object.class).build();
+
+    @Test
+    public void testSingle() {
+        assertEquals("set", single.lookup(Set.class));
+        assertEquals("abstractCollection", single.lookup(HashSet.class));
+        assertEquals("abstractCollection", single.lookup(ArrayList.class));
+        assertEquals("collection", single.lookup(Collection.class));
+        assertEquals("object", single.lookup(String.class));
+    }
+
+    @Test
+    public void testNoHandler() {
+        Dispatcher<String> dispatcher = Dispatcher.<String> builder(1).register("list", List.class).build();
+        assertNull(dispatcher.lookup(Set.class));
+        assertEquals("list", dispatcher.lookup(ArrayList.class));
+    }
+
+    @Test
+    public void testMultiple() {
+        Dispatcher<String> dispatcher = Dispatcher.<String> builder(2)
+                .register("collection,object", Collection.class, Object.class)
+                .register("set,object", Set.class, Object.class)
+                .register("collection,serializable", Collection.class, Serializable.class).build();
+        assertEquals("set,object", dispatcher.lookup(Set.class, Object.class));
+        assertEquals("collection,serializable", dispatcher.lookup(List.class, String.class));
+        assertEquals("collection,object", dispatcher.lookup(List.class, Object.class));
+        assertNull(dispatcher.lookup(String.class, String.class));
+    }
+
+    @Test
+    public void testAmbiguous() {
+        Dispatcher<String> dispatcher = Dispatcher.<String> builder(2)
+                .register("set,object", Set.class, Object.class)
+                .register("collection,serializable", Collection.class, Serializable.class).build();
+        for (int i = 0; i < 2; i++) {
+            try {
+                dispatcher.lookup(HashSet.class, String.class);
+                fail();
+            } catch (AmbiguousDispatchException e) {
+                assertTrue(e.getMessage().contains(HashSet.class.getName()));
+            }
+        }
+        assertEquals("set,object", dispatcher.lookup(HashSet.class, Object.class));
+    }
+
+    static class Unloaded {
+    }
+
+    private WeakReference<ClassLoader> lookupInOtherLoader(Dispatcher<String> dispatcher) throws Exception {
+        URL classes = Unloaded.class.getProtectionDomain().getCodeSource().getLocation();
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { classes }, null)) {
+            Class<?> cls = loader.loadClass(Unloaded.class.getName());
+            assertEquals("object,object", dispatcher.lookup(String.class, cls, String.class));
+            assertEquals("object,object", dispatcher.lookup(cls, String.class, String.class));
+            return new WeakReference<>(loader);
+        }
+    }
+
+    @Test
+    public void testArgumentTypesNotPinned() throws Exception {
+        Dispatcher<String> dispatcher = Dispatcher.<String> builder(3)
+                .register("object,object", Object.class, Object.class, Object.class).build();
+        WeakReference<ClassLoader> loader = lookupInOtherLoader(dispatcher);
+        for (int i = 0; i < 100 && loader.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(loader.get());
+        assertEquals("object,object", dispatcher.lookup(String.class, String.class, String.class));
+    }
+
+    private WeakReference<Dispatcher<?>> lookupWithHandlerReferencingDispatcher() {
+        AtomicReference<Dispatcher<?>> handler = new AtomicReference<>();
+        Dispatcher<Object> dispatcher = Dispatcher.builder(1).register(handler, Object.class).build();
+        handler.set(dispatcher);
+        assertSame(handler, dispatcher.lookup(String.class));
+        return new WeakReference<>(dispatcher);
+    }
+
+    @Test
+    public void testDispatcherNotPinnedByHandler() throws Exception {
+        WeakReference<Dispatcher<?>> dispatcher = lookupWithHandlerReferencingDispatcher();
+        for (int i = 0; i < 100 && dispatcher.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(dispatcher.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateRegistration() {
+        Dispatcher.<String> builder(2).register("first", Set.class, Object.class).register("second", Set.class,
+                Object.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongArity() {
+        Dispatcher.<String> builder(2).register("set", Set.class);
+    }
+
+    @Test
+    public void testSite() {
+        DispatchSite<String> site = single.createSite();
+        for (int i = 0; i < 2; i++) {
+            assertEquals("abstractCollection", site.lookup(HashSet.class));
+            assertEquals("set", site.lookup(Set.class));
+            assertEquals("object", site.lookup(String.class));
+            assertEquals("abstractCollection", site.lookup(TreeSet.class));
+            assertFalse(site.isMegamorphic());
+        }
+        assertEquals("abstractCollection", site.lookup(LinkedList.class));
+        assertTrue(site.isMegamorphic());
+        assertEquals("abstractCollection", site.lookup(HashSet.class));
+        assertEquals("collection", site.lookup(Collection.class));
+    }
+
+    @Test
+    public void testSiteMultiple() {
+        Dispatcher<String> dispatcher = Dispatcher.<String> builder(2)
+                .register("collection,object", Collection.class, Object.class)
+                .register("collection,serializable", Collection.class, Serializable.class).build();
+        DispatchSite<String> site = dispatcher.createSite();
+        for (int i = 0; i < 2; i++) {
+            assertEquals("collection,serializable", site.lookup(List.class, String.class));
+            assertEquals("collection,object", site.lookup(List.class, Object.class));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.ruediste.c3java.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.github.ruediste.c3java.index.ReflectionIndex.PropertyEntry;
+import com.github.ruediste.c3java.linearization.JavaC3;
+import com.github.ruediste.c3java.properties.PropertyUtil;
+
+public class CacheSnapshotTest {
+
+    interface A {
+    }
+
+    static class Bean implements A {
+        public int getValue() {
+            return 0;
+        }
+    }
+
+    @After
+    public void after() {
+        ReflectionIndex.reset();
+        PropertyUtil.invalidate(Bean.class);
+    }
+
+    @Test
+    public void testSaveRestore() throws IOException {
+        PropertyUtil.getPropertyInfoMap(Bean.class);
+        Path file = Files.createTempFile("c3java", ".snapshot");
+        try {
+            CacheSnapshot.save(file, Bean.class.getClassLoader());
+            ReflectionIndex.register(Bean.class.getClassLoader(), ReflectionIndex.EMPTY);
+            assertTrue(CacheSnapshot.restore(file, Bean.class.getClassLoader()));
+        } finally {
+            Files.delete(file);
+        }
+
+        ReflectionIndex index = ReflectionIndex.get(Bean.class);
+        assertEquals(Arrays.asList(Bean.class.getName(), A.class.getName(), Object.class.getName()),
+                index.getLinearization(Bean.class.getName()));
+        assertNotNull(index.getProperties(A.class.getName()));
+        assertEquals("getValue", index.getProperties(Bean.class.getName()).get(0).getGetter());
+        assertTrue(index.isCurrent(Bean.class));
+        assertEquals(Arrays.asList(Bean.class, A.class, Object.class), JavaC3.allSuperclasses(Bean.class));
+    }
+
+    @Test
+    public void testOnlyClassesOfClassLoader() {
+        PropertyUtil.getPropertyInfoMap(Bean.class);
+        assertNotNull(CacheSnapshot.create(Bean.class.getClassLoader()).getProperties(Bean.class.getName()));
+        ClassLoader other = new ClassLoader(Bean.class.getClassLoader()) {
+        };
+        assertNull(CacheSnapshot.create(other).getProperties(Bean.class.getName()));
+        assertNull(CacheSnapshot.create(null).getProperties(Bean.class.getName()));
+    }
+
+    @Test
+    public void testRestoreMissing() throws IOException {
+        Path file = Files.createTempFile("c3java", ".snapshot");
+        Files.delete(file);
+        assertFalse(CacheSnapshot.restore(file));
+    }
+
+    @Test
+    public void testStaleEntrySkipped() {
+        long stamp = ReflectionIndex.classStamp(Bean.class);
+        assertTrue(stamp != -1);
+        assertEquals(stamp, ReflectionIndex.classStamp(Bean.class));
+        ReflectionIndex index = ReflectionIndex.builder()
+                .properties(Bean.class.getName(), Arrays.asList(new PropertyEntry("value", null, null, null, null)))
+                .classStamp(Bean.class.getName(), stamp + 1).build();
+        assertFalse(index.isCurrent(Bean.class));
+        assertTrue(index.isCurrent(A.class));
+
+        ReflectionIndex.register(Bean.class.getClassLoader(), index);
+        assertNotNull(PropertyUtil.getPropertyDeclarations(Bean.class).get("value").getGetter());
+    }
+}
@@ -0,0 +1,209 @@
+package com.github.ruediste.c3java.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.github.ruediste.c3java.index.ReflectionIndex.PropertyEntry;
+import com.github.ruediste.c3java.linearization.JavaC3;
+import com.github.ruediste.c3java.properties.PropertyDeclaration;
+import com.github.ruediste.c3java.properties.PropertyUtil;
+
+public class ReflectionIndexTest {
+
+    interface A {
+    }
+
+    interface B {
+    }
+
+    static class Bean implements A, B {
+        private int count;
+        private String name;
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    static class IndexedBean extends Bean implements A, B {
+        private long size;
+
+        public long getSize() {
+            return size;
+        }
+
+        public void setSize(long size) {
+            this.size = size;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+    }
+
+    static class ChildBean extends Bean {
+    }
+
+    @After
+    public void after() {
+        ReflectionIndex.reset();
+        JavaC3.invalidate(IndexedBean.class);
+        JavaC3.invalidate(ChildBean.class);
+    }
+
+    private ReflectionIndex roundTrip(ReflectionIndex index) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        index.write(out);
+        return ReflectionIndex.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        ReflectionIndex index = roundTrip(new ReflectionIndexGenerator().add(Bean.class).build());
+        assertEquals(Arrays.asList(Bean.class.getName(), A.class.getName(), B.class.getName(), Object.class.getName()),
+                index.getLinearization(Bean.class.getName()));
+        List<PropertyEntry> entries = index.getProperties(Bean.class.getName());
+        assertEquals(2, entries.size());
+        for (PropertyEntry entry : entries) {
+            if ("count".equals(entry.getName())) {
+                assertEquals("getCount", entry.getGetter());
+                assertEquals("setCount", entry.getSetter());
+                assertEquals("int", entry.getSetterParameterType());
+                assertEquals("count", entry.getBackingField());
+            } else
+                assertEquals(String.class.getName(), entry.getSetterParameterType());
+        }
+        assertNull(index.getLinearization(A.class.getName()));
+        assertNull(roundTrip(ReflectionIndex.EMPTY).getProperties(Bean.class.getName()));
+    }
+
+    @Test
+    public void testRoundTripNonAsciiNames() throws IOException {
+        ReflectionIndex index = roundTrip(ReflectionIndex.builder()
+                .linearization("a.Größe\u0000€", Arrays.asList("a.Größe\u0000€", "Object")).build());
+        assertEquals(Arrays.asList("a.Größe\u0000€", "Object"), index.getLinearization("a.Größe\u0000€"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncated() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ReflectionIndexGenerator().add(Bean.class).build().write(out);
+        byte[] bytes = out.toByteArray();
+        ReflectionIndex.read(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 3)));
+    }
+
+    @Test
+    public void testIndexUsed() {
+        ReflectionIndex.register(IndexedBean.class.getClassLoader(), ReflectionIndex.builder()
+                .linearization(IndexedBean.class.getName(),
+                        Arrays.asList(IndexedBean.class.getName(), Bean.class.getName(), A.class.getName(),
+                                B.class.getName(), Object.class.getName()))
+                .properties(IndexedBean.class.getName(),
+                        Arrays.asList(new PropertyEntry("size", null, "setSize", "long", "size")))
+                .build());
+        JavaC3.invalidate(IndexedBean.class);
+
+        assertEquals(Arrays.asList(IndexedBean.class, Bean.class, A.class, B.class, Object.class),
+                JavaC3.allSuperclasses(IndexedBean.class));
+        Map<String, PropertyDeclaration> declarations = PropertyUtil.getPropertyDeclarations(IndexedBean.class);
+        assertEquals(Collections.singleton("size"), declarations.keySet());
+        PropertyDeclaration size = declarations.get("size");
+        assertNull(size.getGetter());
+        assertNotNull(size.getSetter());
+        assertNotNull(size.getBackingField());
+    }
+
+    @Test
+    public void testMismatchFallsBack() {
+        ReflectionIndex.register(IndexedBean.class.getClassLoader(), ReflectionIndex.builder()
+                .linearization(IndexedBean.class.getName(),
+                        Arrays.asList(IndexedBean.class.getName(), String.class.getName(), Object.class.getName()))
+                .properties(IndexedBean.class.getName(),
+                        Arrays.asList(new PropertyEntry("size", "getLength", null, null, null)))
+                .build());
+        JavaC3.invalidate(IndexedBean.class);
+
+        assertEquals(Arrays.asList(IndexedBean.class, Bean.class, A.class, B.class, Object.class),
+                JavaC3.allSuperclasses(IndexedBean.class));
+        assertEquals(2, PropertyUtil.getPropertyDeclarations(IndexedBean.class).size());
+    }
+
+    @Test
+    public void testStaleLinearizationFallsBack() {
+        ReflectionIndex.register(IndexedBean.class.getClassLoader(), ReflectionIndex.builder()
+                .linearization(IndexedBean.class.getName(),
+                        Arrays.asList(IndexedBean.class.getName(), Bean.class.getName(), B.class.getName(),
+                                A.class.getName(), Object.class.getName()))
+                .classStamp(IndexedBean.class.getName(), 0)
+                .linearization(ChildBean.class.getName(),
+                        Arrays.asList(ChildBean.class.getName(), Bean.class.getName(), Object.class.getName()))
+                .build());
+        JavaC3.invalidate(IndexedBean.class);
+        JavaC3.invalidate(ChildBean.class);
+
+        assertEquals(Arrays.asList(IndexedBean.class, Bean.class, A.class, B.class, Object.class),
+                JavaC3.allSuperclasses(IndexedBean.class));
+        assertEquals(Arrays.asList(ChildBean.class, Bean.class, A.class, B.class, Object.class),
+                JavaC3.allSuperclasses(ChildBean.class));
+    }
+
+    @Test
+    public void testCorruptIndexIgnored() throws IOException {
+        Path dir = Files.createTempDirectory("c3java");
+        Path file = dir.resolve(ReflectionIndex.RESOURCE);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[] { 1, 2, 3 });
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { dir.toUri().toURL() }, null)) {
+            assertSame(ReflectionIndex.EMPTY, ReflectionIndex.get(loader));
+            assertSame(ReflectionIndex.EMPTY, ReflectionIndex.get(loader));
+        } finally {
+            Files.delete(file);
+            Files.delete(file.getParent());
+            Files.delete(file.getParent().getParent());
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void testDisabled() {
+        ReflectionIndex.register(IndexedBean.class.getClassLoader(), ReflectionIndex.builder()
+                .properties(IndexedBean.class.getName(), Collections.emptyList()).build());
+        ReflectionIndex.setEnabled(false);
+        try {
+            assertSame(ReflectionIndex.EMPTY, ReflectionIndex.get(IndexedBean.class));
+            assertEquals(2, PropertyUtil.getPropertyDeclarations(IndexedBean.class).size());
+        } finally {
+            ReflectionIndex.setEnabled(true);
+        }
+        assertEquals(0, PropertyUtil.getPropertyDeclarations(IndexedBean.class).size());
+    }
+}
@@ -0,0 +1,96 @@
+package com.github.ruediste.c3java.instrumentation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.ruediste.c3java.linearization.JavaC3;
+import com.github.ruediste.c3java.properties.PropertyUtil;
+
+public class JmxInstrumentationTest {
+
+    interface A {
+    }
+
+    static class Bean implements A {
+        public int getValue() {
+            return 0;
+        }
+    }
+
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    JmxInstrumentation instrumentation;
+
+    @Before
+    public void before() {
+        PropertyUtil.invalidate(A.class);
+        instrumentation = JmxInstrumentation.install();
+    }
+
+    @After
+    public void after() {
+        instrumentation.uninstall();
+        PropertyUtil.invalidate(A.class);
+    }
+
+    private long attribute(String name, String attribute) throws Exception {
+        return (Long) server.getAttribute(new ObjectName(JmxInstrumentation.DOMAIN + ":" + name), attribute);
+    }
+
+    @Test
+    public void testCounters() throws Exception {
+        assertSame(instrumentation, Instrumentations.get());
+        JavaC3.allSuperclasses(Bean.class);
+        JavaC3.allSuperclasses(Bean.class);
+        assertEquals(2, instrumentation.getLinearizationCount());
+        assertTrue(instrumentation.getLinearizationTimeNanos() > 0);
+
+        PropertyUtil.getPropertyInfoMap(Bean.class);
+        PropertyUtil.getPropertyInfoMap(Bean.class);
+        assertEquals(2, instrumentation.getPropertyDeclarationScanCount());
+
+        assertEquals(2, attribute("type=Instrumentation", "LinearizationCount"));
+        assertEquals(1, attribute("type=Cache,name=\"propertyInfoMap\"", "HitCount"));
+        assertEquals(1, attribute("type=Cache,name=\"propertyInfoMap\"", "MissCount"));
+        assertEquals(2, attribute("type=Cache,name=\"linearization\"", "MissCount"));
+        assertTrue(attribute("type=Cache,name=\"linearization\"", "HitCount") >= 2);
+    }
+
+    @Test
+    public void testNameConflict() throws Exception {
+        instrumentation.cacheMiss("propertyInfoMap");
+        JmxInstrumentation other = new JmxInstrumentation(server);
+        other.register();
+        Instrumentations.set(other);
+        try {
+            PropertyUtil.getPropertyInfoMap(Bean.class);
+            assertTrue(other.getPropertyDeclarationScanCount() > 0);
+        } finally {
+            other.uninstall();
+            Instrumentations.set(instrumentation);
+        }
+        assertTrue(server.isRegistered(new ObjectName(JmxInstrumentation.DOMAIN + ":type=Instrumentation")));
+        assertEquals(1, attribute("type=Cache,name=\"propertyInfoMap\"", "MissCount"));
+    }
+
+    @Test
+    public void testUninstall() throws Exception {
+        ObjectName name = new ObjectName(JmxInstrumentation.DOMAIN + ":type=Instrumentation");
+        assertTrue(server.isRegistered(name));
+        instrumentation.uninstall();
+        assertFalse(server.isRegistered(name));
+        assertSame(Instrumentations.NOOP, Instrumentations.get());
+        PropertyUtil.getPropertyInfoMap(Bean.class);
+        assertEquals(0, instrumentation.getPropertyDeclarationScanCount());
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.ruediste.c3java.jfr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.github.ruediste.c3java.linearization.JavaC3;
+import com.github.ruediste.c3java.method.MethodUtil;
+import com.github.ruediste.c3java.properties.PropertyUtil;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class JfrEventsTest {
+
+    interface A {
+    }
+
+    static class Bean implements A {
+        public int getValue() {
+            return 0;
+        }
+    }
+
+    private List<RecordedEvent> record(String eventName, Runnable action) throws IOException {
+        Path file = Files.createTempFile("c3java", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(eventName).withThreshold(Duration.ZERO);
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().equals(eventName)).collect(Collectors.toList());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testDisabled() {
+        assertNull(JfrEvents.beginLinearization());
+        JfrEvents.commit(null, Bean.class, true);
+    }
+
+    @Test
+    public void testNoop() {
+        assertNull(JfrSupport.NOOP.beginLinearization());
+        assertNull(JfrSupport.NOOP.beginPropertyInfoMap());
+        assertNull(JfrSupport.NOOP.beginMethodDeclarations(Bean.class.getMethods()[0]));
+        assertNull(JfrSupport.NOOP.beginProxyCreation());
+    }
+
+    @Test
+    public void testLinearization() throws IOException {
+        JavaC3.invalidate(Bean.class);
+        List<RecordedEvent> events = record("com.github.ruediste.c3java.Linearization", () -> {
+            JavaC3.allSuperclasses(Bean.class);
+            JavaC3.allSuperclasses(Bean.class);
+        });
+        events = events.stream().filter(e -> Bean.class.getName().equals(e.getString("className")))
+                .collect(Collectors.toList());
+        assertEquals(2, events.size());
+        assertFalse(events.get(0).getBoolean("cacheHit"));
+        assertTrue(events.get(1).getBoolean("cacheHit"));
+    }
+
+    @Test
+    public void testPropertyInfoMap() throws IOException {
+        PropertyUtil.invalidate(Bean.class);
+        List<RecordedEvent> events = record("com.github.ruediste.c3java.PropertyInfoMap", () -> {
+            PropertyUtil.getPropertyInfoMap(Bean.class);
+            PropertyUtil.getPropertyInfoMap(Bean.class);
+        });
+        events = events.stream().filter(e -> Bean.class.getName().equals(e.getString("className")))
+                .collect(Collectors.toList());
+        assertEquals(2, events.size());
+        assertFalse(events.get(0).getBoolean("cacheHit"));
+        assertTrue(events.get(1).getBoolean("cacheHit"));
+    }
+
+    @Test
+    public void testMethodDeclarations() throws Exception {
+        List<RecordedEvent> events = record("com.github.ruediste.c3java.MethodDeclarations",
+                () -> MethodUtil.getDeclarations(Bean.class.getMethods()[0]));
+        assertEquals(1, events.size());
+        assertEquals(Bean.class.getName(), events.get(0).getString("className"));
+        assertFalse(events.get(0).getBoolean("cacheHit"));
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.ruediste.c3java.linearization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+
+public class CachingDirectSuperclassesInspectorTest {
+
+    @Test
+    public void testCaching() {
+        CachingDirectSuperclassesInspector inspector = CachingDirectSuperclassesInspector
+                .of(DefaultDirectSuperclassesInspector.INSTANCE);
+        List<Class<?>> parents = inspector.directParentClasses(HashSet.class);
+        assertEquals(DefaultDirectSuperclassesInspector.INSTANCE.directParentClasses(HashSet.class), parents);
+        assertSame(parents, inspector.directParentClasses(HashSet.class));
+        assertSame(inspector, CachingDirectSuperclassesInspector.of(inspector));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        new CachingDirectSuperclassesInspector(DefaultDirectSuperclassesInspector.INSTANCE)
+                .directParentClasses(HashSet.class).clear();
+    }
+
+    @Test
+    public void testLinearization() {
+        assertEquals(JavaC3.allSuperclasses(HashSet.class), JavaC3.allSuperclasses(HashSet.class,
+                new CachingDirectSuperclassesInspector(DefaultDirectSuperclassesInspector.INSTANCE)));
+    }
+}
@@ -0,0 +1,120 @@
+package com.github.ruediste.c3java.linearization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.AbstractCollection;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.reflect.TypeParameter;
+import com.google.common.reflect.TypeToken;
+
+public class GenericLinearizationTest {
+
+    @Test
+    public void testArrayList() {
+        GenericLinearization linearization = JavaC3.allSupertypes(new TypeToken<ArrayList<String>>() {
+        });
+        assertEquals(JavaC3.allSuperclasses(ArrayList.class), linearization.getRawLinearization());
+        assertEquals(ImmutableList.of(new TypeToken<ArrayList<String>>() {
+        }, new TypeToken<AbstractList<String>>() {
+        }, new TypeToken<AbstractCollection<String>>() {
+        }, new TypeToken<List<String>>() {
+        }, new TypeToken<Collection<String>>() {
+        }, new TypeToken<Iterable<String>>() {
+        }, TypeToken.of(RandomAccess.class), TypeToken.of(Cloneable.class), TypeToken.of(Serializable.class),
+                TypeToken.of(Object.class)), linearization);
+        assertEquals(new TypeToken<Collection<String>>() {
+        }, linearization.getSupertype(Collection.class));
+        assertNull(linearization.getSupertype(Set.class));
+    }
+
+    static class StringList extends ArrayList<String> {
+        private static final long serialVersionUID = 1L;
+    }
+
+    @Test
+    public void testRawSubclass() {
+        GenericLinearization linearization = JavaC3.allSupertypes(TypeToken.of(StringList.class));
+        assertEquals(TypeToken.of(StringList.class), linearization.get(0));
+        assertEquals(new TypeToken<List<String>>() {
+        }, linearization.getSupertype(List.class));
+    }
+
+    @Test
+    public void testCached() {
+        GenericLinearization linearization = JavaC3.allSupertypes(new TypeToken<List<StringList>>() {
+        });
+        assertSame(linearization, JavaC3.allSupertypes(new TypeToken<List<StringList>>() {
+        }));
+        assertSame(JavaC3.allSuperclasses(List.class), linearization.getRawLinearization());
+
+        JavaC3.invalidate(StringList.class);
+        assertNotSame(linearization, JavaC3.allSupertypes(new TypeToken<List<StringList>>() {
+        }));
+    }
+
+    private static <T> TypeToken<List<T>> listOf(Class<T> cls) {
+        return new TypeToken<List<T>>() {
+        }.where(new TypeParameter<T>() {
+        }, cls);
+    }
+
+    private static <K, V> TypeToken<Map<K, V>> mapOf(Class<K> key, Class<V> value) {
+        return new TypeToken<Map<K, V>>() {
+        }.where(new TypeParameter<K>() {
+        }, key).where(new TypeParameter<V>() {
+        }, value);
+    }
+
+    private static URL[] testClasses() {
+        return new URL[] { StringList.class.getProtectionDomain().getCodeSource().getLocation() };
+    }
+
+    private WeakReference<ClassLoader> linearizeInOtherLoader() throws Exception {
+        try (URLClassLoader loader = new URLClassLoader(testClasses(), null)) {
+            Class<?> cls = loader.loadClass(StringList.class.getName());
+            GenericLinearization linearization = JavaC3.allSupertypes(listOf(cls));
+            assertSame(linearization, JavaC3.allSupertypes(listOf(cls)));
+            assertEquals(listOf(cls), linearization.get(0));
+            return new WeakReference<>(loader);
+        }
+    }
+
+    @Test
+    public void testTypeArgumentNotPinned() throws Exception {
+        WeakReference<ClassLoader> loader = linearizeInOtherLoader();
+        for (int i = 0; i < 100 && loader.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(loader.get());
+    }
+
+    @Test
+    public void testUnrelatedLoadersNotCached() throws Exception {
+        try (URLClassLoader loader1 = new URLClassLoader(testClasses(), null);
+                URLClassLoader loader2 = new URLClassLoader(testClasses(), null)) {
+            Class<?> cls1 = loader1.loadClass(StringList.class.getName());
+            Class<?> cls2 = loader2.loadClass(StringList.class.getName());
+            GenericLinearization linearization = JavaC3.allSupertypes(mapOf(cls1, cls2));
+            assertEquals(mapOf(cls1, cls2), linearization.get(0));
+            assertNotSame(linearization, JavaC3.allSupertypes(mapOf(cls1, cls2)));
+        }
+    }
+}
@@ -1,16 +1,38 @@
 package com.github.ruediste.c3java.linearization;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.Serializable;
 import java.util.AbstractCollection;
+import java.util.ArrayList;
 import java.util.AbstractSet;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
+import com.github.ruediste.c3java.instrumentation.Instrumentation;
+import com.github.ruediste.c3java.instrumentation.Instrumentations;
+import com.github.ruediste.c3java.linearization.JavaC3.JavaC3Exception;
+
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableList;
 
 public class JavaC3Test {
@@ -79,6 +101,146 @@ public class JavaC3Test {
         System.out.println("HashSet[][]: " + linearization);
     }
 
+    @Test
+    public void testArrayDirectSuperClasses() throws Exception {
+        assertEquals(ImmutableList.of(AbstractSet[].class, Set[].class, Cloneable[].class, Serializable[].class),
+                DefaultDirectSuperclassesInspector.INSTANCE.directParentClasses(HashSet[].class));
+        assertEquals(ImmutableList.of(Serializable[].class, Cloneable[].class, Object[].class),
+                DefaultDirectSuperclassesInspector.INSTANCE.directParentClasses(Object[][].class));
+        assertEquals(ImmutableList.of(Serializable.class, Cloneable.class, Object.class),
+                DefaultDirectSuperclassesInspector.INSTANCE.directParentClasses(Object[].class));
+        assertSame(String[][].class, DefaultDirectSuperclassesInspector.makeArrayClass(String.class, 2));
+        assertSame(String[].class, DefaultDirectSuperclassesInspector.makeArrayClass(String.class, 1));
+        assertSame(int[][][].class, DefaultDirectSuperclassesInspector.makeArrayClass(int.class, 3));
+    }
+
+    @Test
+    public void testCacheRetained() {
+        Iterable<Class<?>> linearization = JavaC3.allSuperclasses(Set.class);
+        System.gc();
+        assertSame(linearization, JavaC3.allSuperclasses(Set.class));
+        assertNotSame(linearization,
+                JavaC3.allSuperclasses(Set.class, ImplementsOnlyDirectSuperclassesInspector.INSTANCE));
+    }
+
+    @Test
+    public void testLinearize() {
+        Linearization linearization = JavaC3.linearize(HashSet.class);
+        assertSame(linearization, JavaC3.allSuperclasses(HashSet.class));
+        assertEquals(linearization.reverse(), JavaC3.allSuperclassesReverse(HashSet.class));
+    }
+
+    private static class CountingInspector extends DefaultDirectSuperclassesInspector {
+        final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public List<Class<?>> directParentClasses(Class<?> c) {
+            if (c == HashSet.class) {
+                count.incrementAndGet();
+            }
+            return super.directParentClasses(c);
+        }
+    }
+
+    @Test
+    public void testConcurrentComputationOnce() throws Exception {
+        // a fresh inspector gets its own, empty cache
+        DirectSuperclassesInspector inspector = new DefaultDirectSuperclassesInspector();
+        AtomicInteger computations = new AtomicInteger();
+        Instrumentations.set(new Instrumentation() {
+            @Override
+            public void linearizationComputed(Class<?> type, long nanos) {
+                if (type == HashSet.class)
+                    computations.incrementAndGet();
+            }
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Linearization>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return JavaC3.linearize(HashSet.class, inspector);
+                }));
+            }
+            start.countDown();
+            for (Future<Linearization> result : results) {
+                assertSame(results.get(0).get(), result.get());
+            }
+        } finally {
+            executor.shutdown();
+            Instrumentations.reset();
+        }
+        assertEquals(1, computations.get());
+    }
+
+    @Test
+    public void testLinearizeAll() {
+        CountingInspector inspector = new CountingInspector();
+        Map<Class<?>, Linearization> linearizations = JavaC3.linearizeAll(
+                ImmutableList.of(HashSet.class, TestC.class, AbstractSet.class, LinkedHashSet.class), inspector);
+        assertEquals(ImmutableList.of(HashSet.class, TestC.class, AbstractSet.class, LinkedHashSet.class),
+                ImmutableList.copyOf(linearizations.keySet()));
+        assertEquals(JavaC3.allSuperclasses(HashSet.class), linearizations.get(HashSet.class));
+        assertEquals(JavaC3.allSuperclasses(TestC.class), linearizations.get(TestC.class));
+        assertEquals(JavaC3.allSuperclasses(LinkedHashSet.class), linearizations.get(LinkedHashSet.class));
+        assertSame(linearizations.get(HashSet.class), JavaC3.allSuperclasses(HashSet.class, inspector));
+    }
+
+    @Test
+    public void testParallelLinearizeAll() {
+        CountingInspector inspector = new CountingInspector();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Map<Class<?>, Linearization> linearizations = ParallelLinearizer.linearizeAll(
+                    ImmutableList.of(HashSet.class, TestC.class, AbstractSet.class, LinkedHashSet.class), inspector,
+                    pool);
+            assertEquals(ImmutableList.of(HashSet.class, TestC.class, AbstractSet.class, LinkedHashSet.class),
+                    ImmutableList.copyOf(linearizations.keySet()));
+            assertEquals(JavaC3.allSuperclasses(HashSet.class), linearizations.get(HashSet.class));
+            assertEquals(JavaC3.allSuperclasses(LinkedHashSet.class), linearizations.get(LinkedHashSet.class));
+            assertSame(linearizations.get(HashSet.class), JavaC3.allSuperclasses(HashSet.class, inspector));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testInvalidateClass() {
+        Linearization hashSet = JavaC3.linearize(HashSet.class);
+        Linearization set = JavaC3.linearize(Set.class);
+        Linearization abstractCollection = JavaC3.linearize(AbstractCollection.class);
+        JavaC3.invalidate(Set.class);
+        assertNotSame(hashSet, JavaC3.allSuperclasses(HashSet.class));
+        assertNotSame(set, JavaC3.allSuperclasses(Set.class));
+        assertEquals(set, JavaC3.allSuperclasses(Set.class));
+        assertSame(abstractCollection, JavaC3.allSuperclasses(AbstractCollection.class));
+    }
+
+    @Test
+    public void testInvalidateClassLoader() {
+        Linearization hashSet = JavaC3.linearize(HashSet.class);
+        Linearization testC = JavaC3.linearize(TestC.class);
+        JavaC3.invalidate(TestC.class.getClassLoader());
+        assertSame(hashSet, JavaC3.allSuperclasses(HashSet.class));
+        assertNotSame(testC, JavaC3.allSuperclasses(TestC.class));
+    }
+
+    class TestDependsOn extends TestC {
+    }
+
+    @Test
+    public void testDependsOn() {
+        ClassLoader loader = TestDependsOn.class.getClassLoader();
+        assertTrue(JavaC3.dependsOn(TestDependsOn.class, loader));
+        assertTrue(JavaC3.dependsOn(TestDependsOn.class, Object.class.getClassLoader()));
+        assertFalse(JavaC3.dependsOn(HashSet.class, loader));
+        assertFalse(JavaC3.dependsOn(TestInconsistentSubclass.class, new ClassLoader(loader) {
+        }));
+        assertNull(JavaC3.getCache(DefaultDirectSuperclassesInspector.INSTANCE).getIfPresent(TestDependsOn.class));
+    }
+
     class TestA {
 
     }
@@ -99,4 +261,98 @@ public class JavaC3Test {
         assertEquals(ImmutableList.of(Object.class), JavaC3.allSuperclasses(Object.class));
 
     }
+
+    interface TestD {
+    }
+
+    interface TestE {
+    }
+
+    interface TestDE extends TestD, TestE {
+    }
+
+    interface TestED extends TestE, TestD {
+    }
+
+    class TestInconsistent implements TestDE, TestED {
+    }
+
+    @Test
+    public void testInconsistent() {
+        try {
+            JavaC3.allSuperclasses(TestInconsistent.class);
+            fail();
+        } catch (JavaC3Exception e) {
+            assertEquals(ImmutableList.of(TestInconsistent.class, TestDE.class, TestED.class), e.getPartialResult());
+            assertEquals(
+                    ImmutableList.of(ImmutableList.of(TestD.class, TestE.class, Object.class),
+                            ImmutableList.of(TestE.class, TestD.class, Object.class), ImmutableList.of(Object.class),
+                            ImmutableList.of(Object.class)),
+                    e.getRemainingInputs());
+        }
+    }
+
+    @Test
+    public void testInconsistentCached() {
+        JavaC3Exception first = null;
+        try {
+            JavaC3.allSuperclasses(TestInconsistent.class);
+            fail();
+        } catch (JavaC3Exception e) {
+            first = e;
+        }
+        try {
+            JavaC3.allSuperclasses(TestInconsistent.class);
+            fail();
+        } catch (JavaC3Exception e) {
+            assertNotSame(first, e);
+            assertEquals(0, e.getStackTrace().length);
+            assertSame(first.getPartialResult(), e.getPartialResult());
+            assertSame(first.getRemainingInputs(), e.getRemainingInputs());
+            e.addSuppressed(first);
+            assertSame(first, e.getSuppressed()[0]);
+        }
+    }
+
+    class TestInconsistentSubclass extends TestInconsistent {
+    }
+
+    @Test
+    public void testTryAllSuperclasses() {
+        assertEquals(Optional.of(JavaC3.allSuperclasses(HashSet.class)), JavaC3.tryAllSuperclasses(HashSet.class));
+        assertFalse(JavaC3.tryAllSuperclasses(TestInconsistent.class).isPresent());
+        assertFalse(JavaC3.tryAllSuperclasses(TestInconsistentSubclass.class).isPresent());
+        assertFalse(JavaC3.tryAllSuperclasses(TestInconsistentSubclass.class).isPresent());
+    }
+
+    @Test
+    public void testCacheStats() {
+        CountingInspector inspector = new CountingInspector();
+        JavaC3.setRecordStats(true);
+        try {
+            JavaC3.allSuperclasses(AbstractSet.class, inspector);
+            JavaC3.allSuperclasses(AbstractSet.class, inspector);
+        } finally {
+            JavaC3.setRecordStats(false);
+        }
+        CacheStats stats = JavaC3.getCacheStats(inspector);
+        assertEquals(JavaC3.linearize(AbstractSet.class).size(), stats.missCount());
+        assertEquals(stats.missCount(), stats.loadSuccessCount());
+        assertTrue(stats.hitCount() > 0);
+    }
+
+    @Test
+    public void testRepeatedInterface() throws Exception {
+        assertEquals(ImmutableList.of(Deep2.class, Deep1.class, TestB.class, Deep0.class, Object.class),
+                JavaC3.allSuperclasses(Deep2.class));
+    }
+
+    interface Deep0 {
+    }
+
+    interface Deep1 extends Deep0 {
+    }
+
+    interface Deep2 extends Deep1, TestB, Deep0 {
+    }
 }
@@ -0,0 +1,63 @@
+package com.github.ruediste.c3java.linearization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class LinearizationTest {
+
+    @Test
+    public void testIndexOf() {
+        Linearization linearization = JavaC3.linearize(HashSet.class);
+        assertEquals(0, linearization.indexOf(HashSet.class));
+        assertEquals(3, linearization.indexOf(Set.class));
+        assertEquals(8, linearization.indexOf(Object.class));
+        assertEquals(-1, linearization.indexOf(List.class));
+        assertEquals(-1, linearization.indexOf("foo"));
+        assertTrue(linearization.contains(Serializable.class));
+        assertFalse(linearization.contains(List.class));
+        for (int i = 0; i < linearization.size(); i++) {
+            assertEquals(i, linearization.indexOf(linearization.get(i)));
+        }
+    }
+
+    @Test
+    public void testReverse() {
+        Linearization linearization = JavaC3.linearize(AbstractSet.class);
+        Linearization reverse = linearization.reverse();
+        assertEquals(ImmutableList.of(Object.class, Iterable.class, Collection.class, Set.class,
+                AbstractCollection.class, AbstractSet.class), reverse);
+        assertEquals(0, reverse.indexOf(Object.class));
+        assertEquals(5, reverse.indexOf(AbstractSet.class));
+        assertTrue(reverse.isReversed());
+        assertSame(linearization, reverse.reverse());
+        assertSame(reverse, JavaC3.allSuperclassesReverse(AbstractSet.class));
+    }
+
+    @Test
+    public void testPrecedes() {
+        Linearization linearization = JavaC3.linearize(HashSet.class);
+        assertTrue(linearization.precedes(AbstractSet.class, Set.class));
+        assertFalse(linearization.precedes(Set.class, AbstractSet.class));
+        assertFalse(linearization.precedes(Set.class, List.class));
+        assertTrue(linearization.reverse().precedes(Set.class, AbstractSet.class));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        JavaC3.linearize(HashSet.class).set(0, Object.class);
+    }
+}
@@ -0,0 +1,120 @@
+package com.github.ruediste.c3java.linearization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.github.ruediste.c3java.linearization.PrecedenceIndex.IndexedLinearization;
+
+public class PrecedenceIndexTest {
+
+    PrecedenceIndex index = new PrecedenceIndex(DefaultDirectSuperclassesInspector.INSTANCE);
+
+    @Test
+    public void testIds() {
+        assertEquals(index.id(HashSet.class), index.id(HashSet.class));
+        assertFalse(index.id(HashSet.class) == index.id(Set.class));
+    }
+
+    @Test
+    public void testMembership() {
+        assertTrue(index.isSubtype(HashSet.class, Set.class));
+        assertTrue(index.isSubtype(HashSet.class, HashSet.class));
+        assertTrue(index.isSubtype(HashSet.class, Object.class));
+        assertFalse(index.isSubtype(HashSet.class, List.class));
+        assertFalse(index.isSubtype(Set.class, HashSet.class));
+    }
+
+    @Test
+    public void testPrecedence() {
+        assertTrue(index.precedes(HashSet.class, AbstractSet.class, Set.class));
+        assertFalse(index.precedes(HashSet.class, Set.class, AbstractSet.class));
+        assertFalse(index.precedes(HashSet.class, Set.class, List.class));
+    }
+
+    @Test
+    public void testPositions() {
+        Linearization linearization = JavaC3.linearize(HashSet.class);
+        IndexedLinearization indexed = index.get(HashSet.class);
+        assertEquals(linearization.size(), indexed.size());
+        for (int i = 0; i < linearization.size(); i++) {
+            assertEquals(index.id(linearization.get(i)), indexed.idAt(i));
+            assertEquals(i, indexed.position(index.id(linearization.get(i))));
+        }
+        assertEquals(-1, indexed.position(index.id(Map.class)));
+        assertEquals(-1, indexed.position(100000));
+        assertSame(linearization, indexed.getLinearization());
+    }
+
+    static class Invalidated implements Serializable {
+        private static final long serialVersionUID = 1L;
+    }
+
+    @Test
+    public void testInvalidate() {
+        IndexedLinearization indexed = index.get(Invalidated.class);
+        assertSame(indexed, index.get(Invalidated.class));
+        JavaC3.invalidate(HashSet.class);
+        assertSame(indexed, index.get(Invalidated.class));
+
+        JavaC3.invalidate(Serializable.class);
+        IndexedLinearization current = index.get(Invalidated.class);
+        assertNotSame(indexed, current);
+        assertSame(JavaC3.allSuperclasses(Invalidated.class), current.getLinearization());
+        assertEquals(1, current.position(index.id(Serializable.class)));
+    }
+
+    static class Unloaded {
+    }
+
+    private WeakReference<ClassLoader> idInOtherLoader() throws Exception {
+        URL classes = Unloaded.class.getProtectionDomain().getCodeSource().getLocation();
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { classes }, null)) {
+            assertEquals(0, index.id(loader.loadClass(Unloaded.class.getName())));
+            return new WeakReference<>(loader);
+        }
+    }
+
+    @Test
+    public void testIdReused() throws Exception {
+        WeakReference<ClassLoader> loader = idInOtherLoader();
+        for (int i = 0; i < 100 && loader.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(loader.get());
+        // give the reference handler time to enqueue the reference of the
+        // unloaded class
+        Thread.sleep(100);
+        assertEquals(0, index.id(Unloaded.class));
+    }
+
+    @Test
+    public void testMostSpecific() {
+        assertSame(AbstractCollection.class,
+                index.mostSpecific(HashSet.class, Collection.class, List.class, AbstractCollection.class));
+        assertSame(Serializable.class, index.mostSpecific(HashSet.class, Object.class, Serializable.class));
+        assertNull(index.mostSpecific(HashSet.class, List.class, Map.class));
+
+        int[] candidates = index.ids(Collection.class, List.class, AbstractCollection.class);
+        assertEquals(2, index.get(HashSet.class).mostSpecific(candidates));
+        assertEquals(-1, index.get(HashSet.class).mostSpecific(index.ids(List.class)));
+    }
+}
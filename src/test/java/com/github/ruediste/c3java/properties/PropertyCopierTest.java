@@ -0,0 +1,136 @@
+package com.github.ruediste.c3java.properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Test;
+
+public class PropertyCopierTest {
+
+    public static class Entity {
+        private long id;
+        private String name;
+        private int count;
+        private Integer boxed;
+        private List<String> tags;
+        public double ratio;
+        private boolean failing;
+
+        public long getId() {
+            return id;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public Integer getBoxed() {
+            return boxed;
+        }
+
+        public void setBoxed(Integer boxed) {
+            this.boxed = boxed;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+
+        public void setTags(List<String> tags) {
+            this.tags = tags;
+        }
+
+        public String getComputed() {
+            if (failing)
+                throw new IllegalStateException("failing");
+            return "computed";
+        }
+    }
+
+    static class Dto {
+        long id;
+        String name;
+        Integer count;
+        int boxed;
+        Collection<String> tags;
+        double ratio;
+        String computed;
+    }
+
+    @Test
+    public void testCopy() {
+        PropertyCopier copier = PropertyCopier.of(Entity.class, Dto.class);
+        assertEquals(Arrays.asList("computed", "count", "id", "name", "ratio", "tags"), copier.getPropertyNames());
+
+        Entity entity = new Entity();
+        entity.setId(1L << 40);
+        entity.setName("foo");
+        entity.setCount(1000);
+        entity.setBoxed(5);
+        entity.setTags(new ArrayList<>());
+        entity.ratio = 0.5;
+        Dto dto = new Dto();
+        copier.copy(entity, dto);
+
+        assertEquals(1L << 40, dto.id);
+        assertEquals("foo", dto.name);
+        assertEquals(Integer.valueOf(1000), dto.count);
+        assertEquals(0, dto.boxed);
+        assertSame(entity.getTags(), dto.tags);
+        assertEquals(0.5, dto.ratio, 0);
+        assertEquals("computed", dto.computed);
+    }
+
+    @Test
+    public void testCopyBack() {
+        PropertyCopier copier = PropertyCopier.of(Dto.class, Entity.class);
+        assertEquals(Arrays.asList("boxed", "id", "name", "ratio"), copier.getPropertyNames());
+
+        Dto dto = new Dto();
+        dto.id = 3;
+        dto.name = "bar";
+        dto.boxed = 7;
+        Entity entity = new Entity();
+        copier.copy(dto, entity);
+        assertEquals(3, entity.getId());
+        assertEquals("bar", entity.getName());
+        assertEquals(Integer.valueOf(7), entity.getBoxed());
+        assertNull(entity.getTags());
+    }
+
+    @Test
+    public void testException() {
+        Entity entity = new Entity();
+        entity.failing = true;
+        try {
+            PropertyCopier.of(Entity.class, Dto.class).copy(entity, new Dto());
+            fail();
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.ruediste.c3java.properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class PropertyMapTest {
+
+    @Test
+    public void testLookup() {
+        Map<String, Integer> expected = new HashMap<>();
+        for (int size = 0; size < 40; size++) {
+            PropertyMap<Integer> map = PropertyMap.copyOf(expected);
+            assertEquals(expected, map);
+            assertEquals(expected.hashCode(), map.hashCode());
+            assertEquals(size, map.size());
+            for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+                assertEquals(entry.getValue(), map.get(new String(entry.getKey())));
+                assertTrue(map.containsKey(entry.getKey()));
+            }
+            assertNull(map.get("missing"));
+            assertNull(map.get(1));
+            assertFalse(map.containsKey(null));
+            expected.put("property" + size, size);
+        }
+    }
+
+    @Test
+    public void testCollidingHashes() {
+        // "Aa" and "BB" have the same hash code
+        Map<String, Integer> expected = new HashMap<>();
+        expected.put("Aa", 1);
+        expected.put("BB", 2);
+        expected.put("AaAa", 3);
+        expected.put("BBBB", 4);
+        PropertyMap<Integer> map = PropertyMap.copyOf(expected);
+        assertEquals(expected, map);
+        assertEquals(Integer.valueOf(2), map.get("BB"));
+        assertNull(map.get("AaBB"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        Map<String, Integer> source = new HashMap<>();
+        source.put("a", 1);
+        PropertyMap.copyOf(source).put("b", 2);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testEntrySetImmutable() {
+        Map<String, Integer> source = new HashMap<>();
+        source.put("a", 1);
+        PropertyMap.copyOf(source).entrySet().iterator().next().setValue(2);
+    }
+}
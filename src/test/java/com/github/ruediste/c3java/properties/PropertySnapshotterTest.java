@@ -0,0 +1,96 @@
+package com.github.ruediste.c3java.properties;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class PropertySnapshotterTest {
+
+    public static class Bean {
+        private String name;
+        private int count;
+        private boolean failing;
+        public double ratio;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getCount() {
+            if (failing)
+                throw new IllegalStateException("failing");
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public void setWriteOnly(String value) {
+        }
+    }
+
+    static class Empty {
+    }
+
+    @Test
+    public void testSnapshot() {
+        PropertySnapshotter snapshotter = PropertySnapshotter.of(Bean.class);
+        assertEquals(Arrays.asList("count", "failing", "name", "ratio"), snapshotter.getPropertyNames());
+        assertEquals(2, snapshotter.indexOf("name"));
+        assertEquals(-1, snapshotter.indexOf("writeOnly"));
+        assertEquals("name", snapshotter.getProperty(2).getName());
+
+        Bean bean = new Bean();
+        bean.setName("foo");
+        bean.setCount(3);
+        bean.ratio = 0.5;
+        assertArrayEquals(new Object[] { 3, false, "foo", 0.5 }, snapshotter.snapshot(bean));
+    }
+
+    @Test
+    public void testDiff() {
+        PropertySnapshotter snapshotter = PropertySnapshotter.of(Bean.class);
+        Bean bean = new Bean();
+        bean.setName("foo");
+        Object[] before = snapshotter.snapshot(bean);
+        assertArrayEquals(new int[] {}, snapshotter.diff(before, snapshotter.snapshot(bean)));
+        bean.setName("bar");
+        bean.ratio = 1;
+        assertArrayEquals(new int[] { snapshotter.indexOf("name"), snapshotter.indexOf("ratio") },
+                snapshotter.diff(before, snapshotter.snapshot(bean)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDiffMismatch() {
+        PropertySnapshotter.of(Bean.class).diff(new Object[1], new Object[1]);
+    }
+
+    @Test
+    public void testEmpty() {
+        PropertySnapshotter snapshotter = PropertySnapshotter.of(Empty.class);
+        assertEquals(0, snapshotter.size());
+        assertEquals(0, snapshotter.snapshot(new Empty()).length);
+    }
+
+    @Test
+    public void testException() {
+        Bean bean = new Bean();
+        bean.failing = true;
+        try {
+            PropertySnapshotter.of(Bean.class).snapshot(bean);
+            fail();
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.github.ruediste.c3java.properties;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
@@ -103,6 +105,25 @@ public class PropertyUtilTest {
                 null, props.get("b1"));
     }
 
+    @Test
+    public void testInvalidate() throws Exception {
+        Map<String, PropertyInfo> infoA = PropertyUtil.getPropertyInfoMap(ClassA.class);
+        Map<String, PropertyInfo> infoB = PropertyUtil.getPropertyInfoMap(InterfaceB.class);
+        Map<String, PropertyInfo> infoC = PropertyUtil.getPropertyInfoMap(ClassC.class);
+        Map<String, PropertyDeclaration> introductionC = PropertyUtil.getPropertyIntroductionMap(ClassC.class);
+
+        PropertyUtil.invalidate(ClassA.class);
+        assertNotSame(infoA, PropertyUtil.getPropertyInfoMap(ClassA.class));
+        assertSame(infoB, PropertyUtil.getPropertyInfoMap(InterfaceB.class));
+        assertNotSame(infoC, PropertyUtil.getPropertyInfoMap(ClassC.class));
+        assertNotSame(introductionC, PropertyUtil.getPropertyIntroductionMap(ClassC.class));
+        assertEquals(infoC, PropertyUtil.getPropertyInfoMap(ClassC.class));
+
+        infoA = PropertyUtil.getPropertyInfoMap(ClassA.class);
+        PropertyUtil.invalidate(ClassA.class.getClassLoader());
+        assertNotSame(infoA, PropertyUtil.getPropertyInfoMap(ClassA.class));
+    }
+
     @Test
     public void testGetPropertyDeclarations() throws Exception {
         Map<String, PropertyDeclaration> props = PropertyUtil.getPropertyDeclarations(ClassC.class);
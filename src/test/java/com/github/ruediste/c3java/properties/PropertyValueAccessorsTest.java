@@ -0,0 +1,361 @@
+package com.github.ruediste.c3java.properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+
+public class PropertyValueAccessorsTest {
+
+    public static class PublicBean {
+        private int count;
+        private String name;
+        private long size;
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public PublicBean setName(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public String getFailing() {
+            throw new IllegalStateException("failing");
+        }
+    }
+
+    public static class NumberBean {
+        public long id;
+        private int count;
+        private double ratio;
+        private boolean active;
+        private Integer boxed;
+        private NumberBean child;
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public double getRatio() {
+            return ratio;
+        }
+
+        public void setRatio(double ratio) {
+            this.ratio = ratio;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public void setActive(boolean active) {
+            this.active = active;
+        }
+
+        public Integer getBoxed() {
+            return boxed;
+        }
+
+        public void setBoxed(Integer boxed) {
+            this.boxed = boxed;
+        }
+
+        public NumberBean getChild() {
+            return child;
+        }
+
+        public void setChild(NumberBean child) {
+            this.child = child;
+        }
+    }
+
+    static class PrivateBean {
+        private String value;
+
+        private String getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * Its members are never made accessible, thus cannot be unreflected
+     */
+    static class InaccessibleBean {
+        private String value;
+
+        private String getValue() {
+            return value;
+        }
+
+        private void setValue(String value) {
+            this.value = value;
+        }
+    }
+
+    private PropertyInfo info(Class<?> type, String name) {
+        return PropertyUtil.getPropertyInfo(type, name);
+    }
+
+    @Test
+    public void testPublicAccessors() {
+        PublicBean bean = new PublicBean();
+        info(PublicBean.class, "count").setValue(bean, 3);
+        assertEquals(3, bean.getCount());
+        assertEquals(3, info(PublicBean.class, "count").getValue(bean));
+        info(PublicBean.class, "name").setValue(bean, "foo");
+        assertEquals("foo", info(PublicBean.class, "name").getValue(bean));
+    }
+
+    @Test
+    public void testBackingField() {
+        PublicBean bean = new PublicBean();
+        info(PublicBean.class, "size").setValue(bean, 5L);
+        assertEquals(5L, bean.size);
+        assertEquals(5L, info(PublicBean.class, "size").getValue(bean));
+    }
+
+    @Test
+    public void testPrivateAccessors() {
+        PrivateBean bean = new PrivateBean();
+        info(PrivateBean.class, "value").setValue(bean, "foo");
+        assertEquals("foo", bean.value);
+        assertEquals("foo", info(PrivateBean.class, "value").getValue(bean));
+    }
+
+    @Test
+    public void testAccessorCached() {
+        PropertyInfo info = info(PublicBean.class, "count");
+        assertSame(info.getValueAccessor(), info.getValueAccessor());
+        PropertyDeclaration declaration = info.getDeclaration();
+        assertSame(declaration.getValueAccessor(), declaration.getValueAccessor());
+    }
+
+    private Object accessorField(PropertyValueAccessor accessor, String name) throws Exception {
+        Field field = accessor.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(accessor);
+    }
+
+    @Test
+    public void testAccessorsShared() throws Exception {
+        for (PropertyAccessStrategy strategy : PropertyAccessStrategy.values()) {
+            PropertyInfo info = info(NumberBean.class, "count");
+            PropertyValueAccessor first = info.getValueAccessor(strategy);
+            PropertyValueAccessor second = info.getDeclaration().getValueAccessor();
+            if (strategy == PropertyUtil.getAccessStrategy()) {
+                assertSame(accessorField(first, "reader"), accessorField(second, "reader"));
+                assertSame(accessorField(first, "writer"), accessorField(second, "writer"));
+            }
+            PropertyValueAccessor third = info.getValueAccessor(strategy);
+            for (String name : new String[] { "reader", "writer", "primitiveReader", "primitiveWriter" })
+                assertSame(accessorField(first, name), accessorField(third, name));
+        }
+    }
+
+    @Test
+    public void testDeclaration() {
+        PublicBean bean = new PublicBean();
+        PropertyDeclaration declaration = PropertyUtil.getPropertyDeclarations(PublicBean.class).get("count");
+        declaration.setValue(bean, 4);
+        assertEquals(4, declaration.getValue(bean));
+    }
+
+    @Test
+    public void testExceptionWrapped() {
+        try {
+            info(PublicBean.class, "failing").getValue(new PublicBean());
+            fail();
+        } catch (RuntimeException e) {
+            assertEquals(IllegalStateException.class, e.getCause().getClass());
+        }
+    }
+
+    @Test
+    public void testNullPrimitive() {
+        try {
+            info(PublicBean.class, "count").setValue(new PublicBean(), null);
+            fail();
+        } catch (RuntimeException e) {
+            // expected
+        }
+        PublicBean bean = new PublicBean();
+        info(PublicBean.class, "name").setValue(bean, null);
+        assertNull(bean.getName());
+    }
+
+    @Test
+    public void testStrategies() throws Throwable {
+        for (PropertyAccessStrategy strategy : PropertyAccessStrategy.values()) {
+            PublicBean bean = new PublicBean();
+            PropertyValueAccessor count = info(PublicBean.class, "count").getValueAccessor(strategy);
+            count.setValue(bean, 3);
+            assertEquals(3, count.getValue(bean));
+            PropertyValueAccessor size = info(PublicBean.class, "size").getValueAccessor(strategy);
+            size.setValue(bean, 4L);
+            assertEquals(4L, size.getValue(bean));
+
+            PrivateBean privateBean = new PrivateBean();
+            PropertyValueAccessor value = info(PrivateBean.class, "value").getValueAccessor(strategy);
+            value.setValue(privateBean, "foo");
+            assertEquals("foo", value.getValue(privateBean));
+        }
+    }
+
+    private interface Action {
+        void run() throws Throwable;
+    }
+
+    private void assertThrows(Class<? extends Throwable> expected, Action action) {
+        try {
+            action.run();
+            fail();
+        } catch (Throwable t) {
+            assertEquals(expected, t.getClass());
+        }
+    }
+
+    @Test
+    public void testFailuresConsistent() {
+        for (PropertyAccessStrategy strategy : PropertyAccessStrategy.values()) {
+            PropertyValueAccessor failing = info(PublicBean.class, "failing").getValueAccessor(strategy);
+            assertThrows(IllegalStateException.class, () -> failing.getValue(new PublicBean()));
+
+            for (String name : new String[] { "count", "name", "size" }) {
+                PropertyValueAccessor accessor = info(PublicBean.class, name).getValueAccessor(strategy);
+                assertThrows(ClassCastException.class, () -> accessor.getValue("foo"));
+                assertThrows(NullPointerException.class, () -> accessor.getValue(null));
+                assertThrows(ClassCastException.class, () -> accessor.setValue(new PublicBean(), this));
+            }
+            PropertyValueAccessor count = info(PublicBean.class, "count").getValueAccessor(strategy);
+            assertThrows(NullPointerException.class, () -> count.setValue(new PublicBean(), null));
+        }
+    }
+
+    @Test
+    public void testHandles() throws Throwable {
+        PublicBean bean = new PublicBean();
+        MethodHandle write = info(PublicBean.class, "count").getWriteHandle();
+        write.invokeExact((Object) bean, (Object) 5);
+        MethodHandle read = info(PublicBean.class, "count").getReadHandle();
+        assertEquals(5, (Object) read.invokeExact((Object) bean));
+
+        PrivateBean privateBean = new PrivateBean();
+        info(PrivateBean.class, "value").getWriteHandle().invokeExact((Object) privateBean, (Object) "foo");
+        assertEquals("foo", (Object) info(PrivateBean.class, "value").getReadHandle().invokeExact((Object) privateBean));
+    }
+
+    @Test
+    public void testHandleFallback() throws Exception {
+        Method getter = InaccessibleBean.class.getDeclaredMethod("getValue");
+        Method setter = InaccessibleBean.class.getDeclaredMethod("setValue", String.class);
+        assertEquals(MethodType.methodType(Object.class, Object.class),
+                PropertyValueAccessors.readHandle(getter, Object.class).type());
+        assertEquals(MethodType.methodType(void.class, Object.class, Object.class),
+                PropertyValueAccessors.writeHandle(setter, Object.class).type());
+    }
+
+    @Test
+    public void testDefaultStrategy() {
+        PropertyAccessStrategy strategy = PropertyUtil.getAccessStrategy();
+        PropertyInfo before = info(PublicBean.class, "count");
+        PropertyUtil.setAccessStrategy(PropertyAccessStrategy.REFLECTION);
+        try {
+            assertEquals(PropertyAccessStrategy.REFLECTION, PropertyUtil.getAccessStrategy());
+            PropertyInfo after = info(PublicBean.class, "count");
+            assertNotSame(before, after);
+            PublicBean bean = new PublicBean();
+            after.setValue(bean, 6);
+            assertEquals(6, after.getValue(bean));
+        } finally {
+            PropertyUtil.setAccessStrategy(strategy);
+        }
+    }
+
+    @Test
+    public void testPrimitiveAccessors() throws Throwable {
+        for (PropertyAccessStrategy strategy : PropertyAccessStrategy.values()) {
+            NumberBean bean = new NumberBean();
+            PropertyValueAccessor count = info(NumberBean.class, "count").getValueAccessor(strategy);
+            count.setInt(bean, 1000);
+            assertEquals(1000, count.getInt(bean));
+            PropertyValueAccessor id = info(NumberBean.class, "id").getValueAccessor(strategy);
+            id.setLong(bean, 1L << 40);
+            assertEquals(1L << 40, id.getLong(bean));
+            PropertyValueAccessor ratio = info(NumberBean.class, "ratio").getValueAccessor(strategy);
+            ratio.setDouble(bean, 0.5);
+            assertEquals(0.5, ratio.getDouble(bean), 0);
+            PropertyValueAccessor active = info(NumberBean.class, "active").getValueAccessor(strategy);
+            active.setBoolean(bean, true);
+            assertTrue(active.getBoolean(bean));
+            PropertyValueAccessor boxed = info(NumberBean.class, "boxed").getValueAccessor(strategy);
+            boxed.setInt(bean, 2000);
+            assertEquals(2000, boxed.getInt(bean));
+        }
+    }
+
+    @Test
+    public void testPrimitivePath() {
+        NumberBean bean = new NumberBean();
+        bean.setChild(new NumberBean());
+        PropertyPath path = new PropertyPath();
+        path.nodes.add(new PropertyPath.PropertyNode(info(NumberBean.class, "child")));
+        path.nodes.add(new PropertyPath.PropertyNode(info(NumberBean.class, "ratio")));
+        path.setDouble(bean, 1.5);
+        assertEquals(1.5, bean.getChild().getRatio(), 0);
+        assertEquals(1.5, path.getDouble(bean), 0);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testPrimitiveTypeMismatch() {
+        info(NumberBean.class, "ratio").getInt(new NumberBean());
+    }
+
+    @Test
+    public void testPrimitivesNotBoxed() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean))
+            return;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        NumberBean bean = new NumberBean();
+        PropertyInfo count = info(NumberBean.class, "count");
+        PropertyInfo id = info(NumberBean.class, "id");
+        long sum = 0;
+        long allocated = 0;
+        // the first round links the accessors
+        for (int round = 0; round < 2; round++) {
+            long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            for (int i = 1000; i < 2000; i++) {
+                count.setInt(bean, i);
+                id.setLong(bean, i);
+                sum += count.getInt(bean) + id.getLong(bean);
+            }
+            allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+        }
+        assertTrue("allocated " + allocated + " bytes", allocated < 1000);
+        assertTrue(sum > 0);
+    }
+}